@@ -0,0 +1,63 @@
+package main.java.com.mugtaba.dataconverter.benchmarks;
+
+import main.java.com.mugtaba.dataconverter.converters.DynamicConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that JSON to XML conversion of a single huge array scales linearly with
+ * its number of items: the average time per operation should double with each
+ * doubling of {@code items}.
+ * <p>
+ * Items cycle through numbers, strings, nulls and booleans, so repeated singleton
+ * values (null, true, false) appear many times in a row, as in telemetry exports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ArrayScalingBenchmark {
+
+    @Param({"1000000", "2000000", "4000000", "8000000"})
+    public int items;
+
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder builder = new StringBuilder(items * 8);
+        builder.append("{\"samples\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            switch (i % 6) {
+                case 0, 1 -> builder.append(i);
+                case 2 -> builder.append("\"s").append(i).append('"');
+                case 3, 4 -> builder.append("null");
+                default -> builder.append(i % 12 == 5 ? "true" : "false");
+            }
+        }
+        builder.append("]}");
+        json = builder.toString();
+    }
+
+    @Benchmark
+    public String jsonToXml() throws Exception {
+        return DynamicConverter.jsonToXml(json, "Telemetry");
+    }
+}
@@ -0,0 +1,100 @@
+package main.java.com.mugtaba.dataconverter.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import main.java.com.mugtaba.dataconverter.converters.DynamicConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks both conversion directions and their two hot helpers separately,
+ * over every payload shape and size.
+ * <p>
+ * Run through {@link BenchmarkRunner} to also get allocation rates from the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ConverterBenchmark {
+
+    @Param({"FLAT", "DEEP", "WIDE_ARRAY", "STRING_HEAVY", "NUMBER_HEAVY", "NULL_HEAVY"})
+    public String shape;
+
+    @Param({"1KB", "1MB", "100MB"})
+    public String size;
+
+    private String json;
+    private String xml;
+    private JsonNode xmlTree;
+    private List<String> texts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        json = Payloads.json(Payloads.Shape.valueOf(shape), Payloads.parseSize(size));
+        xml = DynamicConverter.jsonToXml(json, "Root");
+
+        // Same configuration as the converter's own XML mapper
+        JacksonXmlModule module = new JacksonXmlModule();
+        module.setDefaultUseWrapper(false);
+        xmlTree = new XmlMapper(module).readTree(xml);
+
+        texts = new ArrayList<>();
+        collectTexts(xmlTree, texts);
+    }
+
+    @Benchmark
+    public String jsonToXml() throws Exception {
+        return DynamicConverter.jsonToXml(json, "Root");
+    }
+
+    @Benchmark
+    public String xmlToJson() throws Exception {
+        return DynamicConverter.xmlToJson(xml);
+    }
+
+    @Benchmark
+    public JsonNode correctTypes() {
+        return DynamicConverter.correctTypes(xmlTree);
+    }
+
+    @Benchmark
+    public void escapeXml(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(DynamicConverter.escapeXml(text));
+        }
+    }
+
+    /**
+     * Collects every scalar text of the document, i.e. the values the XML builder escapes.
+     */
+    private static void collectTexts(JsonNode node, List<String> texts) {
+        if (node.isContainerNode()) {
+            Iterator<JsonNode> children = node.elements();
+            while (children.hasNext()) {
+                collectTexts(children.next(), texts);
+            }
+        } else if (!node.isNull()) {
+            texts.add(node.asText());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package main.java.com.mugtaba.dataconverter.benchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic JSON payloads of a given shape and approximate size.
+ * <p>
+ * Generation is seeded, so every fork and every run sees the same documents.
+ */
+final class Payloads {
+
+    /** The shapes of document the benchmarks are run against. */
+    enum Shape {
+        /** One object with many scalar fields of mixed types. */
+        FLAT,
+        /** Records whose values sit at the bottom of long chains of nested objects. */
+        DEEP,
+        /** One array with a very large number of small scalar items. */
+        WIDE_ARRAY,
+        /** Records of long text values, some containing characters that need XML escaping. */
+        STRING_HEAVY,
+        /** Records of integers, longs and decimals. */
+        NUMBER_HEAVY,
+        /** Records where most values are null. */
+        NULL_HEAVY
+    }
+
+    private static final int NESTING_DEPTH = 32;
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore"
+    };
+
+    private static final String[] SPECIALS = {"&", "<", ">", "\\\"", "'"};
+
+    private Payloads() {
+    }
+
+    /**
+     * Parses a size such as {@code 1KB}, {@code 16MB} or {@code 512} into bytes.
+     *
+     * @param size the size to parse
+     * @return the size in bytes
+     */
+    static int parseSize(String size) {
+        String upper = size.trim().toUpperCase(Locale.ROOT);
+        if (upper.endsWith("MB")) {
+            return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024 * 1024;
+        } else if (upper.endsWith("KB")) {
+            return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(upper);
+    }
+
+    /**
+     * Generates a JSON document of the given shape that is at least the given size.
+     *
+     * @param shape       the shape of the document
+     * @param targetBytes the approximate size of the document
+     * @return the JSON document
+     */
+    static String json(Shape shape, int targetBytes) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(targetBytes + 1024);
+
+        switch (shape) {
+            case FLAT -> {
+                json.append('{');
+                for (int i = 0; json.length() < targetBytes; i++) {
+                    separator(json, i);
+                    json.append("\"field").append(i).append("\":");
+                    appendScalar(json, random, i);
+                }
+                json.append('}');
+            }
+            case WIDE_ARRAY -> {
+                json.append("{\"items\":[");
+                for (int i = 0; json.length() < targetBytes; i++) {
+                    separator(json, i);
+                    json.append(random.nextInt(100_000));
+                }
+                json.append("]}");
+            }
+            default -> {
+                json.append("{\"records\":[");
+                for (int i = 0; json.length() < targetBytes; i++) {
+                    separator(json, i);
+                    appendRecord(json, shape, random, i);
+                }
+                json.append("]}");
+            }
+        }
+
+        return json.toString();
+    }
+
+    private static void appendRecord(StringBuilder json, Shape shape, Random random, int index) {
+        switch (shape) {
+            case DEEP -> {
+                for (int level = 0; level < NESTING_DEPTH; level++) {
+                    json.append("{\"level").append(level).append("\":");
+                }
+                json.append("{\"id\":").append(index).append(",\"name\":\"record").append(index).append("\"}");
+                json.append("}".repeat(NESTING_DEPTH));
+            }
+            case STRING_HEAVY -> {
+                json.append("{\"title\":\"").append(sentence(random, 6, false))
+                        .append("\",\"body\":\"").append(sentence(random, 40, true))
+                        .append("\",\"author\":\"").append(sentence(random, 2, false)).append("\"}");
+            }
+            case NUMBER_HEAVY -> {
+                json.append("{\"id\":").append(index)
+                        .append(",\"count\":").append(random.nextInt(1000) - 500)
+                        .append(",\"timestamp\":").append(1_700_000_000_000L + random.nextInt(1_000_000))
+                        .append(",\"price\":").append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 1000))
+                        .append(",\"ratio\":").append(String.format(Locale.ROOT, "%.6f", random.nextDouble()))
+                        .append('}');
+            }
+            case NULL_HEAVY -> {
+                json.append("{\"id\":").append(index);
+                for (int field = 0; field < 8; field++) {
+                    json.append(",\"optional").append(field).append("\":");
+                    if (random.nextInt(10) < 8) {
+                        json.append("null");
+                    } else {
+                        json.append('"').append(WORDS[random.nextInt(WORDS.length)]).append('"');
+                    }
+                }
+                json.append('}');
+            }
+            default -> throw new IllegalArgumentException("Not a record shape: " + shape);
+        }
+    }
+
+    private static void appendScalar(StringBuilder json, Random random, int index) {
+        switch (index % 5) {
+            case 0 -> json.append('"').append(sentence(random, 3, false)).append('"');
+            case 1 -> json.append(random.nextInt());
+            case 2 -> json.append(String.format(Locale.ROOT, "%.3f", random.nextDouble() * 100));
+            case 3 -> json.append(random.nextBoolean());
+            default -> json.append("null");
+        }
+    }
+
+    private static String sentence(Random random, int words, boolean withSpecials) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            if (withSpecials && random.nextInt(8) == 0) {
+                sentence.append(SPECIALS[random.nextInt(SPECIALS.length)]).append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static void separator(StringBuilder json, int index) {
+        if (index > 0) {
+            json.append(',');
+        }
+    }
+}
@@ -1,44 +1,225 @@
 package main.java.com.mugtaba.dataconverter;
 
-import main.java.com.mugtaba.dataconverter.converters.DynamicConverter;
+import main.java.com.mugtaba.dataconverter.batch.BatchConverter;
+import main.java.com.mugtaba.dataconverter.batch.BatchSummary;
+import main.java.com.mugtaba.dataconverter.batch.DirectoryWatcher;
+import main.java.com.mugtaba.dataconverter.cache.ConversionCache;
+import main.java.com.mugtaba.dataconverter.converters.ConversionOptions;
+import main.java.com.mugtaba.dataconverter.converters.ConversionResult;
+import main.java.com.mugtaba.dataconverter.converters.FileConverter;
+import main.java.com.mugtaba.dataconverter.converters.TypeMap;
+import main.java.com.mugtaba.dataconverter.server.ConversionServer;
+import main.java.com.mugtaba.dataconverter.server.HttpConversionServer;
+import main.java.com.mugtaba.dataconverter.spi.ConverterRegistry;
 import main.java.com.mugtaba.dataconverter.utils.FileUtils;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
+    /** Default number of concurrent conversions when running on virtual threads. */
+    private static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    /** Default number of threads converting changed files in watch mode. */
+    private static final int DEFAULT_WATCH_THREADS = 2;
+
+    /** Default time a changed file must be left alone before it is converted in watch mode. */
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+
+    /** Default address of the HTTP service; only reachable from the local machine. */
+    private static final String DEFAULT_HTTP_HOST = "127.0.0.1";
+
+    /** Default limit on the size of a request body of the HTTP service. */
+    private static final long DEFAULT_MAX_BODY_SIZE = 100L * 1024 * 1024;
+
     public static void main(String[] args) {
+        for (String arg : args) {
+            String lowerArg = arg.toLowerCase();
+            if (lowerArg.startsWith("--server=") || lowerArg.startsWith("--http-port=")) {
+                serve(args);
+                return;
+            }
+        }
+
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Runs one command line invocation, printing progress and errors to the given streams
+     * instead of the console, so that it can also be served by a long-running process
+     *
+     * @param args the command line arguments
+     * @param out the stream for progress and usage output
+     * @param err the stream for error messages
+     * @return the exit status, 0 on success
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
         try {
             if (args.length == 0) {
-                printUsage();
-                System.exit(1);
+                printUsage(out);
+                return 1;
             }
 
             Map<String, String> arguments = parseArguments(args);
+            if (arguments.containsKey("help")) {
+                printUsage(out);
+                return 0;
+            }
             validateArguments(arguments);
 
-            String inputFile = arguments.get("input");
             String outputFormat = arguments.get("output");
             String inputFormat = arguments.get("format");
 
-            // Auto-detect input format if not specified
-            if (inputFormat == null) {
-                inputFormat = detectInputFormat(inputFile);
+            int bufferSize = arguments.containsKey("buffer-size")
+                    ? Integer.parseInt(arguments.get("buffer-size"))
+                    : FileUtils.DEFAULT_BUFFER_SIZE;
+            boolean directWrite = Boolean.parseBoolean(arguments.get("direct-write"));
+            boolean pretty = !arguments.containsKey("pretty") || Boolean.parseBoolean(arguments.get("pretty"));
+            ConversionOptions options = ConversionOptions.DEFAULT.withPretty(pretty);
+            if (arguments.containsKey("indent")) {
+                options = options.withIndentWidth(Integer.parseInt(arguments.get("indent")));
+            }
+            if (arguments.containsKey("record")) {
+                options = options.withRecordName(arguments.get("record"));
             }
+            options = options.withSplitRecords(Boolean.parseBoolean(arguments.get("split-records")));
+            if (arguments.containsKey("types")) {
+                // Values at the mapped paths of XML input get their declared types instead of guessed ones
+                options = options.withTypes(TypeMap.load(Paths.get(arguments.get("types"))));
+            }
+
+            // Records within a file are only converted in parallel when asked for
+            int parallelism = arguments.containsKey("parallel") ? Integer.parseInt(arguments.get("parallel")) : 1;
+            ExecutorService recordExecutor = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            // Repeated runs skip the inputs recorded as unchanged in the cache manifest
+            ConversionCache cache = arguments.containsKey("cache")
+                    ? ConversionCache.open(Paths.get(arguments.get("cache")))
+                    : null;
+            try {
+                FileConverter converter = new FileConverter(options, bufferSize, directWrite,
+                        recordExecutor, parallelism)
+                        .withCache(cache)
+                        .withStatistics(Boolean.parseBoolean(arguments.get("stats")));
+
+                boolean watch = Boolean.parseBoolean(arguments.get("watch"));
+
+                if (arguments.containsKey("input-dir")) {
+                    boolean success = convertDirectory(converter, arguments, inputFormat, outputFormat, out, err);
+                    if (watch) {
+                        watch(converter, Paths.get(arguments.get("input-dir")),
+                                arguments.getOrDefault("glob", BatchConverter.defaultGlob(inputFormat, outputFormat)),
+                                Boolean.parseBoolean(arguments.get("recursive")),
+                                arguments, inputFormat, outputFormat, cache, out, err);
+                    }
+                    return success ? 0 : 1;
+                }
+
+                String inputFile = arguments.get("input");
 
-            convertFile(inputFile, inputFormat, outputFormat);
+                // Auto-detect input format if not specified
+                if (inputFormat == null) {
+                    inputFormat = FileConverter.detectInputFormat(inputFile);
+                }
+
+                convertFile(converter, inputFile, inputFormat, outputFormat,
+                        Boolean.parseBoolean(arguments.get("stats")), out);
+                if (watch) {
+                    Path input = Paths.get(inputFile).toAbsolutePath();
+                    watch(converter, input.getParent(), globLiteral(input.getFileName().toString()), false,
+                            arguments, inputFormat, outputFormat, cache, out, err);
+                }
+                return 0;
+            } finally {
+                if (recordExecutor != null) {
+                    recordExecutor.shutdown();
+                }
+                if (cache != null) {
+                    // Keep what was converted even if some files failed
+                    cache.save();
+                    printCacheSummary(cache, out);
+                }
+            }
 
         } catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Serves conversion requests on a Unix domain socket or over HTTP until the process is stopped
+     */
+    private static void serve(String[] args) {
+        try {
+            Map<String, String> arguments = parseArguments(args);
+            validateServerArguments(arguments);
+
+            if (arguments.containsKey("server")) {
+                try (ConversionServer server = new ConversionServer(Paths.get(arguments.get("server")))) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                    System.out.println("Listening on " + server.getSocketPath());
+                    server.serve();
+                }
+            } else {
+                InetSocketAddress address = new InetSocketAddress(
+                        arguments.getOrDefault("http-host", DEFAULT_HTTP_HOST),
+                        Integer.parseInt(arguments.get("http-port")));
+                long maxBodySize = arguments.containsKey("max-body-size")
+                        ? Long.parseLong(arguments.get("max-body-size"))
+                        : DEFAULT_MAX_BODY_SIZE;
+                int concurrency = arguments.containsKey("max-concurrency")
+                        ? Integer.parseInt(arguments.get("max-concurrency"))
+                        : Runtime.getRuntime().availableProcessors() * 2;
+                HttpConversionServer server = new HttpConversionServer(address, maxBodySize, concurrency);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                server.start();
+                System.out.println("Listening on http://" + server.getAddress().getHostString() + ":"
+                        + server.getAddress().getPort() + "/convert, at most " + concurrency
+                        + " conversions at a time");
+            }
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("Error: " + e.getMessage());
             System.exit(1);
         }
     }
 
+    /**
+     * Validates the arguments of the server modes
+     */
+    private static void validateServerArguments(Map<String, String> arguments) {
+        if (arguments.containsKey("server") && arguments.containsKey("http-port")) {
+            throw new IllegalArgumentException("Use either --server or --http-port, not both");
+        }
+
+        String port = arguments.get("http-port");
+        if (port != null && (!port.matches("\\d{1,5}") || Integer.parseInt(port) > 65535)) {
+            throw new IllegalArgumentException("HTTP port must be a number between 0 and 65535, got: " + port);
+        }
+
+        String maxBodySize = arguments.get("max-body-size");
+        if (maxBodySize != null && !maxBodySize.matches("[1-9]\\d{0,17}")) {
+            throw new IllegalArgumentException("Max body size must be a positive number of bytes, got: " + maxBodySize);
+        }
+
+        String maxConcurrency = arguments.get("max-concurrency");
+        if (maxConcurrency != null && !maxConcurrency.matches("[1-9]\\d{0,5}")) {
+            throw new IllegalArgumentException("Max concurrency must be a positive number, got: " + maxConcurrency);
+        }
+    }
+
     /**
      * Parses command line arguments into a key-value map
      */
@@ -48,8 +229,8 @@ public class Main {
         for (String arg : args) {
             if (arg.startsWith("--")) {
                 if (arg.equalsIgnoreCase("--help")) {
-                    printUsage();
-                    System.exit(0);
+                    arguments.put("help", "true");
+                    continue;
                 }
                 String[] parts = arg.substring(2).split("=", 2);
                 if (parts.length == 2) {
@@ -71,7 +252,12 @@ public class Main {
      */
     private static void validateArguments(Map<String, String> arguments) {
         // Check required arguments
-        if (!arguments.containsKey("input")) {
+        boolean batch = arguments.containsKey("input-dir");
+        if (batch && arguments.containsKey("input")) {
+            throw new IllegalArgumentException("Use either --input or --input-dir, not both");
+        }
+
+        if (!batch && !arguments.containsKey("input")) {
             throw new IllegalArgumentException("Missing required argument: --input");
         }
 
@@ -79,177 +265,359 @@ public class Main {
             throw new IllegalArgumentException("Missing required argument: --output");
         }
 
-        // Validate input file exists
-        String inputFile = arguments.get("input");
-        if (!Files.exists(Paths.get(inputFile))) {
-            throw new IllegalArgumentException("Input file does not exist: " + inputFile);
+        if (batch) {
+            // Validate input directory exists
+            String inputDir = arguments.get("input-dir");
+            if (!Files.isDirectory(Paths.get(inputDir))) {
+                throw new IllegalArgumentException("Input directory does not exist: " + inputDir);
+            }
+        } else {
+            // Validate input file exists
+            String inputFile = arguments.get("input");
+            if (!Files.exists(Paths.get(inputFile))) {
+                throw new IllegalArgumentException("Input file does not exist: " + inputFile);
+            }
+        }
+
+        // Validate thread count if specified
+        String threads = arguments.get("threads");
+        if (threads != null && !threads.matches("[1-9]\\d{0,3}")) {
+            throw new IllegalArgumentException("Threads must be a positive number, got: " + threads);
+        }
+
+        // Validate executor if specified
+        String executor = arguments.get("executor");
+        if (executor != null && !executor.equalsIgnoreCase("platform") && !executor.equalsIgnoreCase("virtual")) {
+            throw new IllegalArgumentException("Executor must be 'platform' or 'virtual', got: " + executor);
+        }
+
+        // Validate maximum concurrency if specified
+        String maxConcurrency = arguments.get("max-concurrency");
+        if (maxConcurrency != null && !maxConcurrency.matches("[1-9]\\d{0,5}")) {
+            throw new IllegalArgumentException("Max concurrency must be a positive number, got: " + maxConcurrency);
+        }
+
+        // Validate recursive flag if specified
+        String recursive = arguments.get("recursive");
+        if (recursive != null && !recursive.equalsIgnoreCase("true") && !recursive.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Recursive must be 'true' or 'false', got: " + recursive);
+        }
+
+        // Validate stats flag if specified
+        String stats = arguments.get("stats");
+        if (stats != null && !stats.equalsIgnoreCase("true") && !stats.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Stats must be 'true' or 'false', got: " + stats);
+        }
+
+        // Validate watch flag if specified
+        String watch = arguments.get("watch");
+        if (watch != null && !watch.equalsIgnoreCase("true") && !watch.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Watch must be 'true' or 'false', got: " + watch);
+        }
+
+        // Validate debounce delay if specified
+        String debounce = arguments.get("debounce");
+        if (debounce != null && !debounce.matches("\\d{1,6}")) {
+            throw new IllegalArgumentException("Debounce must be a number of milliseconds, got: " + debounce);
+        }
+
+        // Validate cache manifest if specified
+        String cache = arguments.get("cache");
+        if (cache != null && (cache.isBlank() || Files.isDirectory(Paths.get(cache)))) {
+            throw new IllegalArgumentException("Cache must be the path to a manifest file, got: " + cache);
+        }
+
+        // Validate type map if specified
+        String types = arguments.get("types");
+        if (types != null && !Files.isRegularFile(Paths.get(types))) {
+            throw new IllegalArgumentException("Types must be the path to a type map file, got: " + types);
         }
 
         // Validate output format
+        ConverterRegistry registry = ConverterRegistry.getDefault();
         String outputFormat = arguments.get("output").toLowerCase();
-        if (!outputFormat.equals("json") && !outputFormat.equals("xml")) {
-            throw new IllegalArgumentException("Output format must be 'json' or 'xml', got: " + outputFormat);
+        if (!registry.isSupported(outputFormat)) {
+            throw new IllegalArgumentException("Output format must be one of " + String.join(", ", registry.getFormats())
+                    + ", got: " + outputFormat);
+        }
+
+        // Validate buffer size if specified
+        String bufferSize = arguments.get("buffer-size");
+        if (bufferSize != null && !bufferSize.matches("[1-9]\\d{0,8}")) {
+            throw new IllegalArgumentException("Buffer size must be a positive number of bytes, got: " + bufferSize);
+        }
+
+        // Validate pretty flag if specified
+        String pretty = arguments.get("pretty");
+        if (pretty != null && !pretty.equalsIgnoreCase("true") && !pretty.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Pretty must be 'true' or 'false', got: " + pretty);
+        }
+
+        // Validate indent width if specified
+        String indent = arguments.get("indent");
+        if (indent != null && !indent.matches("\\d{1,2}")) {
+            throw new IllegalArgumentException("Indent must be a number of spaces between 0 and 99, got: " + indent);
+        }
+
+        // Validate record element name if specified
+        String record = arguments.get("record");
+        if (record != null && !record.matches("[A-Za-z_][A-Za-z0-9._-]*")) {
+            throw new IllegalArgumentException("Record must be a valid XML element name, got: " + record);
+        }
+
+        // Validate split records flag if specified
+        String splitRecords = arguments.get("split-records");
+        if (splitRecords != null && !splitRecords.equalsIgnoreCase("true") && !splitRecords.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Split records must be 'true' or 'false', got: " + splitRecords);
+        }
+
+        // Validate record parallelism if specified
+        String parallel = arguments.get("parallel");
+        if (parallel != null && !parallel.matches("[1-9]\\d{0,3}")) {
+            throw new IllegalArgumentException("Parallel must be a positive number of threads, got: " + parallel);
+        }
+
+        // Validate direct write flag if specified
+        String directWrite = arguments.get("direct-write");
+        if (directWrite != null && !directWrite.equalsIgnoreCase("true") && !directWrite.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Direct write must be 'true' or 'false', got: " + directWrite);
         }
 
         // Validate input format if specified
         String inputFormat = arguments.get("format");
         if (inputFormat != null) {
             inputFormat = inputFormat.toLowerCase();
-            if (!inputFormat.equals("json") && !inputFormat.equals("xml")) {
-                throw new IllegalArgumentException("Input format must be 'json' or 'xml', got: " + inputFormat);
+            if (!registry.isSupported(inputFormat)) {
+                throw new IllegalArgumentException("Input format must be one of " + String.join(", ", registry.getFormats())
+                        + ", got: " + inputFormat);
             }
         }
     }
 
     /**
-     * Auto-detects input format based on file extension
+     * Converts file from input format to output format
      */
-    private static String detectInputFormat(String inputFile) {
-        String fileName = inputFile.toLowerCase();
-        if (fileName.endsWith(".json")) {
-            return "json";
-        } else if (fileName.endsWith(".xml")) {
-            return "xml";
-        } else {
-            throw new IllegalArgumentException(
-                    "Cannot auto-detect format for file: " + inputFile +
-                            ". Please specify --format=json or --format=xml");
+    private static void convertFile(FileConverter converter, String inputFile, String inputFormat,
+                                    String outputFormat, boolean stats, PrintStream out) throws IOException {
+        out.println("Reading input file: " + inputFile);
+        out.println("Writing output file: " + FileConverter.generateOutputFileName(inputFile, outputFormat));
+        out.println("Converting " + inputFormat.toUpperCase() + " to " + outputFormat.toUpperCase() + "...");
+
+        ConversionResult result = converter.convertFile(inputFile, inputFormat, outputFormat);
+
+        out.println("Conversion completed successfully!");
+        out.println("Input:  " + inputFile + " (" + inputFormat.toUpperCase() + ")");
+        out.println("Output: " + result.outputFile() + " (" + outputFormat.toUpperCase() + ")");
+        if (stats) {
+            out.println(result.toJson());
         }
     }
 
     /**
-     * Converts file from input format to output format
+     * Converts all matching files of a directory on a worker pool and prints a summary
+     *
+     * @return true if every file was converted successfully
      */
-    private static void convertFile(String inputFile, String inputFormat, String outputFormat)
-            throws IOException {
-
-        // Validate conversion is needed
-        if (inputFormat.equalsIgnoreCase(outputFormat)) {
-            throw new IllegalArgumentException(
-                    "Input and output formats are the same (" + inputFormat + "). No conversion needed.");
-        }
-
-        // Read input file
-        System.out.println("Reading input file: " + inputFile);
-        String inputContent = FileUtils.readFile(inputFile);
-
-        if (inputContent.isEmpty()) {
-            throw new IllegalArgumentException("Input file is empty: " + inputFile);
+    private static boolean convertDirectory(FileConverter converter, Map<String, String> arguments,
+                                            String inputFormat, String outputFormat,
+                                            PrintStream out, PrintStream err) throws IOException {
+        Path inputDir = Paths.get(arguments.get("input-dir"));
+        String glob = arguments.getOrDefault("glob", BatchConverter.defaultGlob(inputFormat, outputFormat));
+        boolean recursive = Boolean.parseBoolean(arguments.get("recursive"));
+        boolean virtualThreads = arguments.getOrDefault("executor", "platform").equalsIgnoreCase("virtual");
+
+        // Platform threads are sized for CPU-bound work; virtual threads let many slow
+        // reads and writes overlap, with the semaphore in BatchConverter bounding concurrency
+        int concurrency;
+        ExecutorService executor;
+        if (virtualThreads) {
+            concurrency = arguments.containsKey("max-concurrency")
+                    ? Integer.parseInt(arguments.get("max-concurrency"))
+                    : DEFAULT_MAX_CONCURRENCY;
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            // Page faults of a mapped input would pin the carrier thread; channel reads don't
+            converter = converter.withMappedInput(false);
+            out.println("Converting files matching '" + glob + "' in " + inputDir +
+                    (recursive ? " (recursive)" : "") + " on virtual threads, at most " + concurrency + " at a time...");
+        } else {
+            concurrency = arguments.containsKey("threads")
+                    ? Integer.parseInt(arguments.get("threads"))
+                    : Runtime.getRuntime().availableProcessors();
+            executor = Executors.newFixedThreadPool(concurrency);
+            out.println("Converting files matching '" + glob + "' in " + inputDir +
+                    (recursive ? " (recursive)" : "") + " using " + concurrency + " threads...");
         }
 
-        // Perform conversion
-        String convertedContent;
-        String rootElementName = extractRootElementName(inputFile);
-
+        BatchConverter batchConverter = new BatchConverter(converter, inputFormat, outputFormat);
+        BatchSummary summary;
         try {
-            if (inputFormat.equalsIgnoreCase("json") && outputFormat.equalsIgnoreCase("xml")) {
-                System.out.println("Converting JSON to XML...");
-                convertedContent = DynamicConverter.jsonToXml(inputContent, rootElementName);
-            } else if (inputFormat.equalsIgnoreCase("xml") && outputFormat.equalsIgnoreCase("json")) {
-                System.out.println("Converting XML to JSON...");
-                convertedContent = DynamicConverter.xmlToJson(inputContent);
-            } else {
-                throw new IllegalArgumentException("Unsupported conversion: " + inputFormat + " to " + outputFormat);
-            }
-        } catch (Exception e) {
-            throw new IOException("Conversion failed: " + e.getMessage(), e);
+            // With a fixed pool, allow a small queue so workers never wait for the directory walk
+            int maxInFlight = virtualThreads ? concurrency : concurrency * 2;
+            summary = batchConverter.convertDirectory(inputDir, glob, recursive, executor, maxInFlight);
+        } finally {
+            executor.shutdown();
         }
 
-        // Generate output file path
-        String outputFile = generateOutputFileName(inputFile, outputFormat);
-
-        // Write output file
-        System.out.println("Writing output file: " + outputFile);
-        FileUtils.writeFile(outputFile, convertedContent);
-
-        System.out.println("Conversion completed successfully!");
-        System.out.println("Input:  " + inputFile + " (" + inputFormat.toUpperCase() + ")");
-        System.out.println("Output: " + outputFile + " (" + outputFormat.toUpperCase() + ")");
+        printBatchSummary(summary, out, err);
+        return summary.failures().isEmpty();
     }
 
     /**
-     * Extracts root element name from file name or path
+     * Prints the outcome of a batch conversion
      */
-    private static String extractRootElementName(String inputFile) {
-        Path path = Paths.get(inputFile);
-        String fileName = path.getFileName().toString();
-        String nameWithoutExtension = fileName.substring(0, fileName.lastIndexOf('.'));
+    private static void printBatchSummary(BatchSummary summary, PrintStream out, PrintStream err) {
+        for (BatchSummary.Failure failure : summary.failures()) {
+            err.println("Failed: " + failure.file() + ": " + failure.message());
+        }
 
-        // Convert to PascalCase for XML root element
-        return toPascalCase(nameWithoutExtension);
+        out.println("Batch conversion completed!");
+        out.println("Converted: " + summary.converted() + " files");
+        out.println("Failed:    " + summary.failures().size() + " files");
+        out.printf("Elapsed:   %.2f s%n", summary.elapsedNanos() / 1e9);
+        out.printf("Throughput: %.1f files/s, %.2f MB/s (%d bytes in, %d bytes out)%n",
+                summary.filesPerSecond(), summary.megabytesPerSecond(), summary.bytesIn(), summary.bytesOut());
     }
 
     /**
-     * Converts a string to PascalCase
+     * Converts matching files of a directory again whenever they change, on a small
+     * worker pool, until the process is stopped
      */
-    private static String toPascalCase(String input) {
-        if (input == null || input.isEmpty()) {
-            return "Root";
-        }
-
-        StringBuilder result = new StringBuilder();
-        boolean capitalizeNext = true;
-
-        for (char c : input.toCharArray()) {
-            if (Character.isLetterOrDigit(c)) {
-                if (capitalizeNext) {
-                    result.append(Character.toUpperCase(c));
-                    capitalizeNext = false;
-                } else {
-                    result.append(Character.toLowerCase(c));
+    private static void watch(FileConverter converter, Path directory, String glob, boolean recursive,
+                              Map<String, String> arguments, String inputFormat, String outputFormat,
+                              ConversionCache cache, PrintStream out, PrintStream err) throws IOException {
+        int threads = arguments.containsKey("threads")
+                ? Integer.parseInt(arguments.get("threads"))
+                : DEFAULT_WATCH_THREADS;
+        long debounceMillis = arguments.containsKey("debounce")
+                ? Long.parseLong(arguments.get("debounce"))
+                : DEFAULT_DEBOUNCE_MILLIS;
+        boolean stats = Boolean.parseBoolean(arguments.get("stats"));
+
+        DirectoryWatcher.Listener listener = new DirectoryWatcher.Listener() {
+            @Override
+            public void converted(Path input, ConversionResult result) {
+                out.printf("Converted %s -> %s in %d ms%n",
+                        input, result.outputFile(), result.totalNanos() / 1_000_000);
+                if (stats) {
+                    out.println(result.toJson());
+                }
+                if (cache != null) {
+                    // The process only ends when stopped, so keep the manifest current
+                    try {
+                        cache.save();
+                    } catch (IOException e) {
+                        err.println("Failed to save cache: " + e.getMessage());
+                    }
                 }
-            } else {
-                capitalizeNext = true;
             }
-        }
 
-        return !result.isEmpty() ? result.toString() : "Root";
+            @Override
+            public void failed(Path input, Exception error) {
+                err.println("Failed: " + input + ": " + error.getMessage());
+            }
+        };
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try (DirectoryWatcher watcher = new DirectoryWatcher(converter, inputFormat, outputFormat,
+                workers, debounceMillis, listener)) {
+            out.println("Watching " + directory + " for changes to files matching '" + glob + "'"
+                    + (recursive ? " (recursive)" : "") + "; press Ctrl+C to stop...");
+            watcher.watch(directory, glob, recursive);
+        } finally {
+            workers.shutdown();
+        }
     }
 
     /**
-     * Generates output file name based on input file and target format
+     * Escapes the characters of a file name that have a meaning in glob patterns
      */
-    private static String generateOutputFileName(String inputFile, String outputFormat) {
-        Path inputPath = Paths.get(inputFile);
-        String fileName = inputPath.getFileName().toString();
-        String nameWithoutExtension = fileName.substring(0, fileName.lastIndexOf('.'));
-        String newExtension = "." + outputFormat.toLowerCase();
-
-        Path parentDir = inputPath.getParent();
-        String outputFileName = nameWithoutExtension + "_converted" + newExtension;
+    private static String globLiteral(String fileName) {
+        return fileName.replaceAll("([\\\\*?\\[\\]{}])", "\\\\$1");
+    }
 
-        if (parentDir != null) {
-            return parentDir.resolve(outputFileName).toString();
-        } else {
-            return outputFileName;
-        }
+    /**
+     * Prints how many inputs the cache let the run skip
+     */
+    private static void printCacheSummary(ConversionCache cache, PrintStream out) {
+        out.println("Cache: " + cache.getUpToDateCount() + " up to date, "
+                + cache.getUnchangedCount() + " converted with unchanged output, "
+                + cache.getWrittenCount() + " written (" + cache.getManifest() + ")");
     }
 
     /**
      * Prints usage information
      */
-    private static void printUsage() {
-        System.out.println("Data Converter - JSON/XML Conversion Tool");
-        System.out.println("========================================");
-        System.out.println();
-        System.out.println("Usage:");
-        System.out.println("  java -jar data-converter.jar --input=<file> --output=<format> [--format=<format>]");
-        System.out.println();
-        System.out.println("Required Arguments:");
-        System.out.println("  --input=<file>     Path to input file");
-        System.out.println("  --output=<format>  Output format (json|xml)");
-        System.out.println();
-        System.out.println("Optional Arguments:");
-        System.out.println("  --format=<format>  Input format (json|xml). Auto-detected if not specified.");
-        System.out.println();
-        System.out.println("Examples:");
-        System.out.println("  java -jar data-converter.jar --input=data.json --output=xml");
-        System.out.println("  java -jar data-converter.jar --input=config.xml --output=json");
-        System.out.println("  java -jar data-converter.jar --input=data.txt --format=json --output=xml");
-        System.out.println();
-        System.out.println("Notes:");
-        System.out.println("  - Output file will be created in the same directory as input file");
-        System.out.println("  - Output file name: <input_name>_converted.<output_format>");
-        System.out.println("  - Input format is auto-detected from file extension if not specified");
+    private static void printUsage(PrintStream out) {
+        ConverterRegistry registry = ConverterRegistry.getDefault();
+        String formats = String.join("|", registry.getFormats());
+        out.println("Data Converter - JSON/XML Conversion Tool");
+        out.println("========================================");
+        out.println();
+        out.println("Usage:");
+        out.println("  java -jar data-converter.jar --input=<file> --output=<format> [--format=<format>]");
+        out.println("  java -jar data-converter.jar --input-dir=<dir> --output=<format> [--glob=<pattern>] [--recursive=true]");
+        out.println("  java -jar data-converter.jar --server=<socket>");
+        out.println("  java -jar data-converter.jar --http-port=<port> [--http-host=<address>]");
+        out.println();
+        out.println("Required Arguments:");
+        out.println("  --input=<file>     Path to input file (or --input-dir=<dir> for batch mode)");
+        out.println("  --output=<format>  Output format (" + formats + ")");
+        out.println();
+        out.println("Optional Arguments:");
+        out.println("  --format=<format>  Input format (" + formats + "). Auto-detected if not specified.");
+        out.println("  --pretty=<true|false>  Indented output, or compact/minified output (default: true)");
+        out.println("  --indent=<n>       Spaces per indentation level of pretty output (default: 2)");
+        out.println("  --buffer-size=<n>  Output write buffer size in bytes (default: 65536)");
+        out.println("  --direct-write=<true|false>  Write output through a FileChannel with an off-heap buffer");
+        out.println("  --record=<name>    Element name of each NDJSON record or top-level array item (default: record)");
+        out.println("  --split-records=<true|false>  Convert each child of the XML root into an item of a JSON array");
+        out.println("  --types=<file>     JSON object of XML paths and the types of their values (string, int,");
+        out.println("                     long, decimal, boolean or array), used instead of guessing types");
+        out.println("  --parallel=<n>     Threads converting the records of one NDJSON file, top-level JSON array,");
+        out.println("                     or XML file with --split-records=true or --output=ndjson (default: 1)");
+        out.println("  --cache=<file>     Manifest of earlier runs: skip unchanged inputs and only rewrite");
+        out.println("                     outputs whose content changes");
+        out.println("  --stats=<true|false>  Print the read, convert and write times, byte and token counts and");
+        out.println("                     allocation of each file converted individually, as JSON");
+        out.println();
+        out.println("Batch Mode Arguments:");
+        out.println("  --input-dir=<dir>  Convert all matching files in a directory in one process");
+        out.println("  --glob=<pattern>   Files to convert (default: *.json for xml output, *.xml for json output)");
+        out.println("  --recursive=<true|false>  Include subdirectories (default: false)");
+        out.println("  --threads=<n>      Number of worker threads (default: number of CPUs)");
+        out.println("  --executor=<platform|virtual>  Run each file on a virtual thread, for I/O-bound storage");
+        out.println("  --max-concurrency=<n>  Concurrent conversions with --executor=virtual (default: 256)");
+        out.println();
+        out.println("Watch Mode Arguments:");
+        out.println("  --watch=<true|false>  After converting, keep converting the input file or the matching");
+        out.println("                     files of --input-dir whenever they change");
+        out.println("  --debounce=<ms>    Time a file must be left alone before it is converted (default: 50)");
+        out.println("  --threads=<n>      Number of threads converting changed files (default: 2)");
+        out.println();
+        out.println("Server Mode:");
+        out.println("  --server=<socket>  Keep a warmed-up converter running on a Unix domain socket;");
+        out.println("                     send it the arguments above with bin/data-converter-client");
+        out.println("  --http-port=<port>  Serve POST /convert?from=json&to=xml&root=<name> over HTTP");
+        out.println("  --http-host=<address>  Address to listen on (default: 127.0.0.1)");
+        out.println("  --max-body-size=<n>  Largest accepted request body in bytes (default: 104857600)");
+        out.println("  --max-concurrency=<n>  Conversions in progress at once (default: twice the number of CPUs)");
+        out.println();
+        out.println("Examples:");
+        out.println("  java -jar data-converter.jar --input=data.json --output=xml");
+        out.println("  java -jar data-converter.jar --input=config.xml --output=json");
+        out.println("  java -jar data-converter.jar --input=data.txt --format=json --output=xml");
+        out.println("  java -jar data-converter.jar --input=events.ndjson --output=xml --parallel=4");
+        out.println("  java -jar data-converter.jar --input=export.xml --output=ndjson --parallel=4");
+        out.println("  java -jar data-converter.jar --input=orders.xml --output=json --types=order-types.json");
+        out.println("  java -jar data-converter.jar --input-dir=exports --glob=*.json --recursive=true --output=xml");
+        out.println("  java -jar data-converter.jar --input-dir=exports --output=xml --cache=converter-cache.json");
+        out.println("  java -jar data-converter.jar --input-dir=config --output=xml --watch=true");
+        out.println();
+        out.println("Notes:");
+        out.println("  - Output file will be created in the same directory as input file");
+        out.println("  - Output file name: <input_name>_converted.<output_format>");
+        out.println("  - Input format is auto-detected from file extension if not specified");
+        out.println("    (" + String.join(", ", registry.getExtensions()) + ")");
+        out.println("  - Further formats are picked up from converter modules on the class path");
     }
 }
\ No newline at end of file
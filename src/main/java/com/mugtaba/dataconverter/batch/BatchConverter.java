@@ -0,0 +1,156 @@
+package main.java.com.mugtaba.dataconverter.batch;
+
+import main.java.com.mugtaba.dataconverter.converters.FileConverter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Converts all matching files of a directory in one process.
+ * <p>
+ * Files are handed to a caller-supplied executor while the directory is still being
+ * walked; a semaphore bounds how many conversions are queued or running at once, so
+ * very large directories don't build up an unbounded backlog of tasks. All conversions
+ * share the static Jackson mappers of {@code DynamicConverter}.
+ */
+public class BatchConverter {
+
+    private final FileConverter converter;
+    private final String inputFormat;
+    private final String outputFormat;
+
+    /**
+     * Creates a batch converter.
+     *
+     * @param converter    the converter used for each file
+     * @param inputFormat  the input format, or null to detect it from each file's extension
+     * @param outputFormat the output format
+     */
+    public BatchConverter(FileConverter converter, String inputFormat, String outputFormat) {
+        this.converter = converter;
+        this.inputFormat = inputFormat;
+        this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Returns the glob used when none is given: all files with the extension of the
+     * input format, or of the format opposite to the output format when the input
+     * format is auto-detected.
+     *
+     * @param inputFormat  the input format, or null
+     * @param outputFormat the output format
+     * @return the default glob pattern
+     */
+    public static String defaultGlob(String inputFormat, String outputFormat) {
+        if (inputFormat != null) {
+            return "*." + inputFormat.toLowerCase();
+        }
+        return outputFormat.equalsIgnoreCase("xml") ? "*.json" : "*.xml";
+    }
+
+    /**
+     * Converts all files of a directory that match the glob pattern. Patterns without a
+     * '/' are matched against file names, others against paths relative to the directory.
+     * Outputs of earlier runs ({@code *_converted.*}) are never picked up as inputs.
+     * <p>
+     * Failures are recorded in the summary and don't stop the run. The executor is not
+     * shut down.
+     *
+     * @param directory   the directory to convert
+     * @param glob        the glob pattern selecting input files
+     * @param recursive   whether to descend into subdirectories
+     * @param executor    the executor running the conversions
+     * @param maxInFlight the maximum number of conversions queued or running at once
+     * @return the summary of the run
+     * @throws IOException if the directory cannot be walked, or the run is interrupted
+     */
+    public BatchSummary convertDirectory(Path directory, String glob, boolean recursive,
+                                         ExecutorService executor, int maxInFlight) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Input directory does not exist: " + directory);
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        boolean matchFileName = !glob.contains("/");
+
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicLong converted = new AtomicLong();
+        AtomicLong bytesIn = new AtomicLong();
+        AtomicLong bytesOut = new AtomicLong();
+        ConcurrentLinkedQueue<BatchSummary.Failure> failures = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+
+        try (Stream<Path> paths = recursive ? Files.walk(directory) : Files.list(directory)) {
+            Iterator<Path> files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(matchFileName ? path.getFileName() : directory.relativize(path)))
+                    .filter(path -> !isConvertedOutput(path))
+                    .iterator();
+
+            while (files.hasNext()) {
+                Path file = files.next();
+                permits.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            String input = file.toString();
+                            String format = inputFormat != null ? inputFormat : FileConverter.detectInputFormat(input);
+                            long size = Files.size(file);
+                            String output = converter.convert(input, format, outputFormat);
+                            bytesIn.addAndGet(size);
+                            bytesOut.addAndGet(Files.size(Path.of(output)));
+                            converted.incrementAndGet();
+                        } catch (Exception e) {
+                            failures.add(new BatchSummary.Failure(file.toString(), e.getMessage()));
+                        } catch (InternalError e) {
+                            // Inputs are read through a memory mapping, which faults if the
+                            // file is truncated meanwhile
+                            failures.add(new BatchSummary.Failure(file.toString(),
+                                    "Input changed while it was being read: " + e.getMessage()));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            // Wait for the conversions still running
+            permits.acquire(maxInFlight);
+            permits.release(maxInFlight);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch conversion interrupted");
+        }
+
+        List<BatchSummary.Failure> failureList = new ArrayList<>(failures);
+        return new BatchSummary(converted.get(), failureList, bytesIn.get(), bytesOut.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Returns whether a file is the output of a conversion, named {@code *_converted.*}
+     */
+    static boolean isConvertedOutput(Path file) {
+        String fileName = file.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 && fileName.substring(0, extension).endsWith("_converted");
+    }
+}
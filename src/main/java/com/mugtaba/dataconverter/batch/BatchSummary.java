@@ -0,0 +1,38 @@
+package main.java.com.mugtaba.dataconverter.batch;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch conversion run.
+ *
+ * @param converted    the number of files converted successfully
+ * @param failures     the files that could not be converted, in completion order
+ * @param bytesIn      the total size of the successfully converted input files
+ * @param bytesOut     the total size of the output files written
+ * @param elapsedNanos the wall-clock duration of the run
+ */
+public record BatchSummary(long converted, List<Failure> failures, long bytesIn, long bytesOut, long elapsedNanos) {
+
+    /**
+     * A file that could not be converted.
+     *
+     * @param file    the path to the input file
+     * @param message the reason the conversion failed
+     */
+    public record Failure(String file, String message) {
+    }
+
+    /**
+     * Returns the number of files converted per second.
+     */
+    public double filesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (converted + failures.size()) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the input throughput in megabytes per second.
+     */
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesIn * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+}
@@ -0,0 +1,263 @@
+package main.java.com.mugtaba.dataconverter.batch;
+
+import main.java.com.mugtaba.dataconverter.converters.ConversionResult;
+import main.java.com.mugtaba.dataconverter.converters.FileConverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Converts the matching files of a directory again whenever they change, until closed.
+ * <p>
+ * Changes are reported by a {@link WatchService}. Editors and copy tools often write a
+ * file in several steps, each raising an event, so a file is only converted once it has
+ * been quiet for the debounce delay; every further event restarts the delay. Conversions
+ * run on a caller-supplied executor, at most one at a time per file: a file that changes
+ * again while it is being converted is converted once more afterwards. Outputs
+ * ({@code *_converted.*}) are never picked up as inputs, so writing them doesn't trigger
+ * further conversions.
+ */
+public class DirectoryWatcher implements Closeable {
+
+    /**
+     * Receives the outcome of each conversion, on the thread that ran it.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a file was converted.
+         *
+         * @param input the input file
+         * @param result the output file and statistics of the conversion
+         */
+        void converted(Path input, ConversionResult result);
+
+        /**
+         * Called when a file could not be converted.
+         *
+         * @param input the input file
+         * @param error the reason the conversion failed
+         */
+        void failed(Path input, Exception error);
+    }
+
+    /**
+     * The debounce timer and conversion state of one file, guarded by the watcher.
+     */
+    private static final class Job {
+        ScheduledFuture<?> timer;
+        boolean running;
+        boolean changedWhileRunning;
+    }
+
+    private final FileConverter converter;
+    private final String inputFormat;
+    private final String outputFormat;
+    private final ExecutorService executor;
+    private final long debounceMillis;
+    private final Listener listener;
+    private final WatchService watchService;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<Path, Job> jobs = new HashMap<>();
+
+    /**
+     * Creates a watcher.
+     *
+     * @param converter      the converter used for each file
+     * @param inputFormat    the input format, or null to detect it from each file's extension
+     * @param outputFormat   the output format
+     * @param executor       the executor running the conversions; not shut down by the watcher
+     * @param debounceMillis how long a file must be quiet before it is converted
+     * @param listener       the listener notified of each conversion
+     * @throws IOException if the watch service cannot be created
+     */
+    public DirectoryWatcher(FileConverter converter, String inputFormat, String outputFormat,
+                            ExecutorService executor, long debounceMillis, Listener listener) throws IOException {
+        this.converter = converter;
+        this.inputFormat = inputFormat;
+        this.outputFormat = outputFormat;
+        this.executor = executor;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Watches a directory, converting the files that match the glob pattern whenever they
+     * are created or modified. Patterns are matched as by
+     * {@link BatchConverter#convertDirectory}. Blocks until the watcher is closed.
+     *
+     * @param directory the directory to watch
+     * @param glob      the glob pattern selecting input files
+     * @param recursive whether to watch subdirectories, including ones created later
+     * @throws IOException if the directory cannot be watched or disappears, or the thread is interrupted
+     */
+    public void watch(Path directory, String glob, boolean recursive) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Input directory does not exist: " + directory);
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        boolean matchFileName = !glob.contains("/");
+        Path root = directory.toAbsolutePath().normalize();
+        register(root, recursive);
+
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path watched = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost: check every file of the directory
+                        scan(watched, root, matcher, matchFileName, false);
+                        continue;
+                    }
+                    Path path = watched.resolve((Path) event.context());
+                    if (recursive && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                            && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        // Files may have been created before the new directory was registered
+                        register(path, true);
+                        scan(path, root, matcher, matchFileName, true);
+                    } else if (matches(path, root, matcher, matchFileName)) {
+                        schedule(path);
+                    }
+                }
+                if (!key.reset() && watched.equals(root)) {
+                    throw new IOException("Watched directory no longer exists: " + directory);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed: stop watching
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Watch interrupted");
+        }
+    }
+
+    /**
+     * Stops watching and cancels pending conversions. Conversions already running on the
+     * executor are left to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        watchService.close();
+    }
+
+    /**
+     * Registers a directory, and its subdirectories if recursive, with the watch service
+     */
+    private void register(Path directory, boolean recursive) throws IOException {
+        if (!recursive) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return;
+        }
+        try (Stream<Path> directories = Files.walk(directory)) {
+            for (Path subdirectory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                subdirectory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    /**
+     * Schedules the conversion of every matching file of a directory
+     */
+    private void scan(Path directory, Path root, PathMatcher matcher, boolean matchFileName, boolean recursive)
+            throws IOException {
+        try (Stream<Path> paths = recursive ? Files.walk(directory) : Files.list(directory)) {
+            paths.filter(path -> matches(path, root, matcher, matchFileName)).forEach(this::schedule);
+        }
+    }
+
+    private static boolean matches(Path path, Path root, PathMatcher matcher, boolean matchFileName) {
+        return Files.isRegularFile(path)
+                && matcher.matches(matchFileName ? path.getFileName() : root.relativize(path))
+                && !BatchConverter.isConvertedOutput(path);
+    }
+
+    /**
+     * Starts or restarts the debounce delay of a file
+     */
+    private synchronized void schedule(Path file) {
+        Job job = jobs.computeIfAbsent(file, f -> new Job());
+        if (job.timer != null) {
+            job.timer.cancel(false);
+        }
+        try {
+            job.timer = scheduler.schedule(() -> start(file), debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Hands a file that has been quiet for the debounce delay to the executor, unless it
+     * is still being converted
+     */
+    private synchronized void start(Path file) {
+        Job job = jobs.computeIfAbsent(file, f -> new Job());
+        job.timer = null;
+        if (job.running) {
+            job.changedWhileRunning = true;
+            return;
+        }
+        job.running = true;
+        try {
+            executor.execute(() -> run(file, job));
+        } catch (RejectedExecutionException e) {
+            // Shut down
+            jobs.remove(file);
+        }
+    }
+
+    /**
+     * Converts a file, then converts it again if it changed in the meantime
+     */
+    private void run(Path file, Job job) {
+        try {
+            // Deleted or renamed while its delay ran
+            if (Files.isRegularFile(file)) {
+                String input = file.toString();
+                String format = inputFormat != null ? inputFormat : FileConverter.detectInputFormat(input);
+                listener.converted(file, converter.convertFile(input, format, outputFormat));
+            }
+        } catch (Exception e) {
+            listener.failed(file, e);
+        } catch (InternalError e) {
+            // Inputs are read through a memory mapping, which faults if an editor truncates
+            // the file meanwhile; its next write is picked up as another change
+            listener.failed(file, new IOException("Input changed while it was being read: " + e.getMessage(), e));
+        } finally {
+            synchronized (this) {
+                job.running = false;
+                if (job.changedWhileRunning) {
+                    job.changedWhileRunning = false;
+                    start(file);
+                } else if (job.timer == null) {
+                    jobs.remove(file);
+                }
+            }
+        }
+    }
+}
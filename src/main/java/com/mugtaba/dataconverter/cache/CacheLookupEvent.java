@@ -0,0 +1,34 @@
+package main.java.com.mugtaba.dataconverter.cache;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the lookup of an input in a {@link ConversionCache}.
+ */
+@Name("dataconverter.CacheLookup")
+@Label("Cache Lookup")
+@Category("Data Converter")
+@Description("Check of whether the output of an input is up to date")
+@StackTrace(false)
+final class CacheLookupEvent extends Event {
+
+    @Label("Input File")
+    String inputFile;
+
+    @Label("Input Size")
+    @DataAmount
+    long size;
+
+    @Label("Checksummed")
+    @Description("The input was read to compare its checksum")
+    boolean checksummed;
+
+    @Label("Up To Date")
+    boolean upToDate;
+}
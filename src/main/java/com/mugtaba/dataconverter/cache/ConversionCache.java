@@ -0,0 +1,333 @@
+package main.java.com.mugtaba.dataconverter.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk manifest of earlier conversions, so that repeated runs over mostly unchanged
+ * inputs skip the files whose output is already up to date.
+ * <p>
+ * Each input is recorded with its size, modification time and CRC32C checksum, the
+ * settings it was converted with, and the size and modification time of the output
+ * written for it. An input whose size and modification time are unchanged is trusted
+ * without being read; one that was touched is read once to compare its checksum, so
+ * that copied or re-saved files with the same content are still skipped. Files modified
+ * shortly before they were recorded are always checksummed, as a later change within
+ * the timestamp resolution of the file system would leave their modification time as is.
+ * <p>
+ * The manifest is a JSON file, loaded by {@link #open(Path)} and replaced atomically by
+ * {@link #save()}. Lookups and updates are thread-safe, so one cache can serve a batch
+ * run converting files concurrently; separate processes sharing a manifest only lose
+ * each other's entries, which makes them convert those files again.
+ */
+public final class ConversionCache {
+
+    /** Version of the manifest layout; manifests of other versions are ignored. */
+    private static final int VERSION = 1;
+
+    /** Time before its recording within which a modification may not have changed the timestamp. */
+    private static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path manifest;
+    private final Map<String, Entry> entries;
+    private final AtomicLong upToDate = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * A recorded conversion of one input.
+     */
+    private record Entry(long size, long modified, long checksum, String settings,
+                         String output, long outputSize, long outputModified, long recorded) {
+    }
+
+    /**
+     * The state of an input at lookup, and whether its output is up to date.
+     */
+    public static final class Lookup {
+
+        private final Path input;
+        private final Path output;
+        private final String settings;
+        private final long size;
+        private final long modified;
+        private final long checksum;
+        private final boolean checksummed;
+        private final boolean upToDate;
+
+        private Lookup(Path input, Path output, String settings, long size, long modified,
+                       long checksum, boolean checksummed, boolean upToDate) {
+            this.input = input;
+            this.output = output;
+            this.settings = settings;
+            this.size = size;
+            this.modified = modified;
+            this.checksum = checksum;
+            this.checksummed = checksummed;
+            this.upToDate = upToDate;
+        }
+
+        /**
+         * Returns whether the output was converted from the same content with the same
+         * settings and has not been changed since, so the conversion can be skipped.
+         *
+         * @return true if the input does not need to be converted
+         */
+        public boolean isUpToDate() {
+            return upToDate;
+        }
+    }
+
+    private ConversionCache(Path manifest, Map<String, Entry> entries) {
+        this.manifest = manifest;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the manifest at a path, or starts an empty one if the file does not exist.
+     *
+     * @param manifest the path to the manifest file
+     * @return the cache
+     * @throws IOException if the manifest cannot be read or is not a manifest
+     */
+    public static ConversionCache open(Path manifest) throws IOException {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (!Files.exists(manifest)) {
+            return new ConversionCache(manifest, entries);
+        }
+
+        JsonNode root;
+        try {
+            root = mapper.readTree(manifest.toFile());
+        } catch (JsonProcessingException e) {
+            throw new IOException("Invalid cache manifest: " + manifest + ". " + e.getOriginalMessage(), e);
+        }
+        if (root == null || !root.path("entries").isObject()) {
+            throw new IOException("Invalid cache manifest: " + manifest);
+        }
+        if (root.path("version").asInt() != VERSION) {
+            // Written by another version: convert everything again
+            return new ConversionCache(manifest, entries);
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> fields = root.get("entries").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode entry = field.getValue();
+            entries.put(field.getKey(), new Entry(
+                    entry.path("size").asLong(-1),
+                    entry.path("modified").asLong(),
+                    entry.path("checksum").asLong(),
+                    entry.path("settings").asText(),
+                    entry.path("output").asText(),
+                    entry.path("outputSize").asLong(-1),
+                    entry.path("outputModified").asLong(),
+                    entry.path("recorded").asLong()));
+        }
+        return new ConversionCache(manifest, entries);
+    }
+
+    /**
+     * Looks up an input, checksumming it unless its size and modification time show it
+     * to be unchanged. If the content is unchanged but the file was touched, its entry is
+     * updated so that later runs don't read it again.
+     *
+     * @param input the input file
+     * @param output the output file converted from it
+     * @param settings the formats and options of the conversion; a different value means
+     *                 the output has to be converted again
+     * @return the state of the input, to be passed to {@link #record} after converting it
+     * @throws IOException if the input cannot be read
+     */
+    public Lookup lookup(Path input, Path output, String settings) throws IOException {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Lookup lookup = check(input, output, settings);
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputFile = input.toString();
+            event.size = lookup.size;
+            event.checksummed = lookup.checksummed;
+            event.upToDate = lookup.upToDate;
+            event.commit();
+        }
+        return lookup;
+    }
+
+    private Lookup check(Path input, Path output, String settings) throws IOException {
+        String key = key(input);
+        BasicFileAttributes attributes = Files.readAttributes(input, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        Entry entry = entries.get(key);
+        boolean outputIntact = entry != null
+                && entry.settings().equals(settings)
+                && entry.output().equals(key(output))
+                && isIntact(output, entry.outputSize(), entry.outputModified());
+
+        if (outputIntact && entry.size() == size && entry.modified() == modified
+                && modified < entry.recorded() - TIMESTAMP_RESOLUTION_MILLIS) {
+            upToDate.incrementAndGet();
+            return new Lookup(input, output, settings, size, modified, entry.checksum(), false, true);
+        }
+
+        long checksum = checksum(input);
+        if (outputIntact && entry.size() == size && entry.checksum() == checksum) {
+            entries.put(key, new Entry(size, modified, checksum, settings,
+                    entry.output(), entry.outputSize(), entry.outputModified(), System.currentTimeMillis()));
+            upToDate.incrementAndGet();
+            return new Lookup(input, output, settings, size, modified, checksum, true, true);
+        }
+        return new Lookup(input, output, settings, size, modified, checksum, true, false);
+    }
+
+    /**
+     * Records the conversion of a looked-up input, once its output has been written or
+     * found to be identical to the existing one.
+     *
+     * @param lookup the lookup of the input before it was converted
+     * @param outputWritten whether the output file was replaced, rather than left as is
+     *                      because the conversion produced the same bytes
+     * @throws IOException if the output cannot be read
+     */
+    public void record(Lookup lookup, boolean outputWritten) throws IOException {
+        BasicFileAttributes output = Files.readAttributes(lookup.output, BasicFileAttributes.class);
+        entries.put(key(lookup.input), new Entry(lookup.size, lookup.modified, lookup.checksum, lookup.settings,
+                key(lookup.output), output.size(), output.lastModifiedTime().toMillis(), System.currentTimeMillis()));
+        (outputWritten ? written : unchanged).incrementAndGet();
+    }
+
+    /**
+     * Writes the manifest, replacing the previous one atomically where the file system
+     * allows it.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    public void save() throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("version", VERSION);
+        ObjectNode entriesNode = root.putObject("entries");
+        entries.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    Entry entry = e.getValue();
+                    entriesNode.putObject(e.getKey())
+                            .put("size", entry.size())
+                            .put("modified", entry.modified())
+                            .put("checksum", entry.checksum())
+                            .put("settings", entry.settings())
+                            .put("output", entry.output())
+                            .put("outputSize", entry.outputSize())
+                            .put("outputModified", entry.outputModified())
+                            .put("recorded", entry.recorded());
+                });
+
+        Path directory = manifest.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, manifest.getFileName().toString(), ".tmp");
+        try {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), root);
+            try {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the number of inputs skipped because their output was up to date.
+     *
+     * @return the number of skipped inputs
+     */
+    public long getUpToDateCount() {
+        return upToDate.get();
+    }
+
+    /**
+     * Returns the number of inputs converted into the same bytes as their existing
+     * output, which was therefore not rewritten.
+     *
+     * @return the number of outputs left as is
+     */
+    public long getUnchangedCount() {
+        return unchanged.get();
+    }
+
+    /**
+     * Returns the number of outputs written.
+     *
+     * @return the number of outputs created or replaced
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Returns the path to the manifest file.
+     *
+     * @return the manifest path
+     */
+    public Path getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Computes the CRC32C checksum of a file, reading it through a memory mapping
+     *
+     * @param file the file to checksum
+     * @return the checksum
+     * @throws IOException if the file cannot be read
+     */
+    public static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Integer.MAX_VALUE, size - position));
+                crc.update(window);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Checks that a file still has the recorded size and modification time
+     */
+    private static boolean isIntact(Path file, long size, long modified) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() == size && attributes.lastModifiedTime().toMillis() == modified;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+}
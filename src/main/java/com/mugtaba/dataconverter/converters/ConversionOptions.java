@@ -0,0 +1,141 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+/**
+ * Immutable settings controlling the output of a conversion.
+ * <p>
+ * Start from {@link #DEFAULT} and derive variants with the {@code with...} methods.
+ */
+public final class ConversionOptions {
+
+    /** Pretty-printed output indented by two spaces, as produced by the converter so far. */
+    public static final ConversionOptions DEFAULT = new ConversionOptions(true, 2, "record", false, TypeMap.NONE);
+
+    private final boolean pretty;
+    private final int indentWidth;
+    private final String recordName;
+    private final boolean splitRecords;
+    private final TypeMap types;
+
+    private ConversionOptions(boolean pretty, int indentWidth, String recordName, boolean splitRecords,
+                              TypeMap types) {
+        this.pretty = pretty;
+        this.indentWidth = indentWidth;
+        this.recordName = recordName;
+        this.splitRecords = splitRecords;
+        this.types = types;
+    }
+
+    /**
+     * Returns whether output is indented and split into lines. When false, output
+     * is compact with no whitespace between elements.
+     *
+     * @return true for pretty-printed output
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * Returns the number of spaces per indentation level of pretty-printed output.
+     *
+     * @return the indent width
+     */
+    public int getIndentWidth() {
+        return indentWidth;
+    }
+
+    /**
+     * Returns the name of the XML element written for each record of NDJSON input.
+     *
+     * @return the record element name
+     */
+    public String getRecordName() {
+        return recordName;
+    }
+
+    /**
+     * Returns whether XML is converted record by record: each child element of the
+     * root becomes one item of a JSON array, instead of the document becoming an object.
+     *
+     * @return true to convert the children of the root as separate records
+     */
+    public boolean isSplitRecords() {
+        return splitRecords;
+    }
+
+    /**
+     * Returns the types of the values at given paths of XML input, which are converted
+     * to JSON as declared instead of having their types guessed from their text.
+     *
+     * @return the type map, empty unless set
+     */
+    public TypeMap getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns options with pretty printing switched on or off.
+     *
+     * @param pretty true for indented output, false for compact output
+     * @return the new options
+     */
+    public ConversionOptions withPretty(boolean pretty) {
+        return new ConversionOptions(pretty, indentWidth, recordName, splitRecords, types);
+    }
+
+    /**
+     * Returns options with a different indent width for pretty-printed output.
+     *
+     * @param indentWidth the number of spaces per indentation level
+     * @return the new options
+     * @throws IllegalArgumentException if the width is negative
+     */
+    public ConversionOptions withIndentWidth(int indentWidth) {
+        if (indentWidth < 0) {
+            throw new IllegalArgumentException("Indent width cannot be negative, got: " + indentWidth);
+        }
+        return new ConversionOptions(pretty, indentWidth, recordName, splitRecords, types);
+    }
+
+    /**
+     * Returns options with a different record element name.
+     *
+     * @param recordName the name of the element written for each record
+     * @return the new options
+     */
+    public ConversionOptions withRecordName(String recordName) {
+        return new ConversionOptions(pretty, indentWidth, recordName, splitRecords, types);
+    }
+
+    /**
+     * Returns options converting XML record by record, or as a whole document.
+     *
+     * @param splitRecords true to write each child of the root as an item of a JSON array
+     * @return the new options
+     */
+    public ConversionOptions withSplitRecords(boolean splitRecords) {
+        return new ConversionOptions(pretty, indentWidth, recordName, splitRecords, types);
+    }
+
+    /**
+     * Returns options converting the values at the paths of a type map to its types.
+     *
+     * @param types the type map, or {@link TypeMap#NONE} to guess every type
+     * @return the new options
+     */
+    public ConversionOptions withTypes(TypeMap types) {
+        return new ConversionOptions(pretty, indentWidth, recordName, splitRecords, types);
+    }
+
+    /**
+     * Returns a description of every setting, which differs between options that can
+     * produce different output.
+     *
+     * @return the settings as text
+     */
+    @Override
+    public String toString() {
+        return "pretty=" + pretty + ", indentWidth=" + indentWidth + ", recordName=" + recordName
+                + ", splitRecords=" + splitRecords + (types.isEmpty() ? "" : ", types=" + types);
+    }
+}
@@ -0,0 +1,71 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Outcome of converting one file, with a breakdown of where the time went.
+ * <p>
+ * The streaming pipeline parses, type-corrects and serializes each token before reading
+ * the next one, so those steps are measured together as the convert phase: timing them
+ * separately would cost more per token than the steps themselves. The read and write
+ * phases are the time spent in the input and output streams.
+ *
+ * @param inputFile      the path to the input file
+ * @param outputFile     the path to the output file
+ * @param inputFormat    the input format
+ * @param outputFormat   the output format
+ * @param skipped        true if the output was up to date in the cache and nothing was converted
+ * @param bytesIn        the number of bytes read from the input
+ * @param bytesOut       the number of bytes of output produced
+ * @param tokens         the number of tokens of the input, or -1 if they were not counted:
+ *                       statistics were not asked for, or records were converted in parallel
+ * @param readNanos      the time spent reading the input
+ * @param convertNanos   the time spent parsing, type-correcting and serializing
+ * @param writeNanos     the time spent writing the output
+ * @param totalNanos     the wall-clock duration of the whole call, including cache checks
+ * @param allocatedBytes the bytes allocated by the calling thread and by the tasks
+ *                       converting records in parallel, or -1 if statistics were not
+ *                       asked for or the JVM doesn't measure allocation
+ */
+public record ConversionResult(String inputFile, String outputFile, String inputFormat, String outputFormat,
+                               boolean skipped, long bytesIn, long bytesOut, long tokens,
+                               long readNanos, long convertNanos, long writeNanos, long totalNanos,
+                               long allocatedBytes) {
+
+    /**
+     * Returns the result as a JSON document, with times in milliseconds.
+     *
+     * @return the pretty-printed JSON
+     */
+    public String toJson() {
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        json.put("input", inputFile);
+        json.put("inputFormat", inputFormat);
+        json.put("output", outputFile);
+        json.put("outputFormat", outputFormat);
+        json.put("skipped", skipped);
+        json.put("bytesIn", bytesIn);
+        json.put("bytesOut", bytesOut);
+        putCount(json, "tokens", tokens);
+        ObjectNode millis = json.putObject("millis");
+        millis.put("read", toMillis(readNanos));
+        millis.put("convert", toMillis(convertNanos));
+        millis.put("write", toMillis(writeNanos));
+        millis.put("total", toMillis(totalNanos));
+        putCount(json, "allocatedBytes", allocatedBytes);
+        return json.toPrettyString();
+    }
+
+    private static void putCount(ObjectNode json, String name, long count) {
+        if (count < 0) {
+            json.putNull(name);
+        } else {
+            json.put(name, count);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
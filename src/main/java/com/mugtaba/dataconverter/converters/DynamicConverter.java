@@ -1,17 +1,52 @@
 package main.java.com.mugtaba.dataconverter.converters;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.node.*;
 import com.fasterxml.jackson.dataformat.xml.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class DynamicConverter {
     private static final ObjectMapper jsonMapper = new ObjectMapper();
     private static final XmlMapper xmlMapper;
+    private static final ObjectWriter prettyJsonWriter = jsonMapper.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter compactJsonWriter = jsonMapper.writer();
+
+    /** Options of NDJSON output: records split from the XML root, each on one compact line. */
+    static final ConversionOptions NDJSON_OPTIONS =
+            ConversionOptions.DEFAULT.withPretty(false).withSplitRecords(true);
+
+    /** Entity for each ASCII character that must be escaped in XML text, indexed by character. */
+    private static final String[] XML_ESCAPES = new String['>' + 1];
+
+    static {
+        XML_ESCAPES['&'] = "&amp;";
+        XML_ESCAPES['<'] = "&lt;";
+        XML_ESCAPES['>'] = "&gt;";
+        XML_ESCAPES['"'] = "&quot;";
+        XML_ESCAPES['\''] = "&apos;";
+    }
 
     static {
         JacksonXmlModule module = new JacksonXmlModule();
@@ -29,98 +64,243 @@ public class DynamicConverter {
      * @throws JsonProcessingException if there is an error processing the JSON
      */
     public static String jsonToXml(String json, String rootName) throws JsonProcessingException {
-        JsonNode jsonNode = jsonMapper.readTree(json);
+        return jsonToXml(json, rootName, ConversionOptions.DEFAULT);
+    }
 
-        // Build XML manually to have proper control over attributes
-        StringBuilder xmlBuilder = new StringBuilder();
-        xmlBuilder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xmlBuilder.append("<")
-                .append(rootName)
-                .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+    /**
+     * Converts a JSON string to an XML string with the specified root element name.
+     *
+     * @param json the JSON string to be converted
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @return the converted XML string
+     * @throws JsonProcessingException if there is an error processing the JSON
+     */
+    public static String jsonToXml(String json, String rootName, ConversionOptions options)
+            throws JsonProcessingException {
+        // Stream tokens straight into XML to have proper control over attributes
+        // without materializing a JsonNode tree
+        StringWriter xmlWriter = new StringWriter(json.length() + (json.length() >> 1));
 
-        buildXmlContent(jsonNode, xmlBuilder, 1);
+        try {
+            jsonToXml(jsonMapper.getFactory().createParser(json), xmlWriter, rootName, options);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // Cannot happen with in-memory input and output
+            throw new UncheckedIOException(e);
+        }
 
-        xmlBuilder.append("</").append(rootName).append(">");
+        return formatXml(xmlWriter.toString());
+    }
 
-        return formatXml(xmlBuilder.toString());
+    /**
+     * Converts JSON read from a byte stream to UTF-8 encoded XML written to a byte stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param json the stream to read JSON from; the encoding is auto-detected
+     * @param xml the stream to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void jsonToXml(InputStream json, OutputStream xml, String rootName) throws IOException {
+        jsonToXml(json, xml, rootName, ConversionOptions.DEFAULT);
     }
 
     /**
-     * Recursively builds XML content from JSON nodes
-     * Builds the XML content from the JSON node and appends it to the StringBuilder
+     * Converts JSON read from a byte stream to UTF-8 encoded XML written to a byte stream,
+     * without buffering the whole document. Neither stream is closed.
      *
-     * @param node the JSON node
-     * @param xml the StringBuilder to append the XML content
-     * @param indent the current indentation level
+     * @param json the stream to read JSON from; the encoding is auto-detected
+     * @param xml the stream to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @throws IOException if there is an error reading, processing or writing the data
      */
-    private static void buildXmlContent(JsonNode node, StringBuilder xml, int indent) {
-        if (node.isObject()) {
-            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                String key = entry.getKey();
-                JsonNode value = entry.getValue();
+    public static void jsonToXml(InputStream json, OutputStream xml, String rootName, ConversionOptions options)
+            throws IOException {
+        Writer xmlWriter = new BufferedWriter(new OutputStreamWriter(xml, StandardCharsets.UTF_8));
+        jsonToXml(jsonMapper.getFactory().createParser(json), xmlWriter, rootName, options);
+    }
 
-                addIndent(xml, indent);
-
-                if (value.isNull()) {
-                    // Create a null element with xsi:nil attribute
-                    xml.append("<").append(key).append(" xsi:nil=\"true\"/>\n");
-                } else if (value.isArray()) {
-                    // Handle arrays - each element gets the same tag name
-                    for (JsonNode item : value) {
-
-                        if (item.isNull()) {
-                            xml.append("<").append(key).append(" xsi:nil=\"true\"/>\n");
-                        } else if (item.isObject()) {
-                            xml.append("<").append(key).append(">\n");
-                            buildXmlContent(item, xml, indent + 1);
-                            addIndent(xml, indent);
-                            xml.append("</").append(key).append(">\n");
-                        } else {
-                            xml.append("<").append(key).append(">")
-                                    .append(escapeXml(item.asText()))
-                                    .append("</").append(key).append(">\n");
-                        }
-                        if (item != value.get(value.size() - 1))
-                            addIndent(xml, indent);
-                    }
-                } else if (value.isObject()) {
-                    xml.append("<").append(key).append(">\n");
-                    buildXmlContent(value, xml, indent + 1);
-                    addIndent(xml, indent);
-                    xml.append("</").append(key).append(">\n");
-                } else {
-                    xml.append("<").append(key).append(">")
-                            .append(escapeXml(value.asText()))
-                            .append("</").append(key).append(">\n");
-                }
-            }
+    /**
+     * Converts UTF-8 encoded JSON read from a byte stream to UTF-8 encoded XML written to a
+     * byte stream. If the document is a top-level array, it is split into chunks of whole
+     * items that are converted in parallel on the executor and written back in order,
+     * giving the same output as the sequential conversion; any other document is
+     * converted sequentially. Neither stream is closed, and the executor is not shut down.
+     *
+     * @param json the stream to read JSON from
+     * @param xml the stream to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @param executor the executor converting chunks of array items
+     * @param chunkSize the approximate number of input bytes per chunk
+     * @param maxInFlight the maximum number of chunks converted or awaiting output at once
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void jsonToXml(InputStream json, OutputStream xml, String rootName, ConversionOptions options,
+                                 ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        new JsonArrayToXmlStreamer(jsonMapper.getFactory(), options)
+                .convert(json, xml, rootName, executor, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Converts JSON read from a character stream to XML written to a character stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param json the reader to read JSON from
+     * @param xml the writer to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void jsonToXml(Reader json, Writer xml, String rootName) throws IOException {
+        jsonToXml(json, xml, rootName, ConversionOptions.DEFAULT);
+    }
+
+    /**
+     * Converts JSON read from a character stream to XML written to a character stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param json the reader to read JSON from
+     * @param xml the writer to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void jsonToXml(Reader json, Writer xml, String rootName, ConversionOptions options)
+            throws IOException {
+        jsonToXml(jsonMapper.getFactory().createParser(json), xml, rootName, options);
+    }
+
+    /**
+     * Converts newline-delimited JSON (NDJSON) read from a byte stream to a UTF-8 encoded
+     * XML document written to a byte stream. Each record becomes an element named by
+     * {@link ConversionOptions#getRecordName()} under the root element. Records are
+     * streamed one at a time, and neither stream is closed.
+     *
+     * @param json the stream to read NDJSON from
+     * @param xml the stream to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void ndjsonToXml(InputStream json, OutputStream xml, String rootName, ConversionOptions options)
+            throws IOException {
+        Writer xmlWriter = new BufferedWriter(new OutputStreamWriter(xml, StandardCharsets.UTF_8));
+        try (JsonParser parser = jsonMapper.getFactory().createParser(json)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            new NdjsonToXmlStreamer(jsonMapper.getFactory(), options).convert(parser, xmlWriter, rootName);
         }
     }
 
     /**
-     * Adds proper indentation to XML
+     * Converts UTF-8 encoded newline-delimited JSON (NDJSON) read from a byte stream to a
+     * UTF-8 encoded XML document written to a byte stream, converting chunks of whole
+     * lines in parallel on the executor. The output is identical to that of the
+     * sequential conversion, provided every record is on a single line. Neither stream
+     * is closed, and the executor is not shut down.
+     *
+     * @param json the stream to read NDJSON from
+     * @param xml the stream to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @param executor the executor converting chunks of lines
+     * @param chunkSize the approximate number of input bytes per chunk
+     * @param maxInFlight the maximum number of chunks converted or awaiting output at once
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void ndjsonToXml(InputStream json, OutputStream xml, String rootName, ConversionOptions options,
+                                   ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        new NdjsonToXmlStreamer(jsonMapper.getFactory(), options)
+                .convert(json, xml, rootName, executor, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Streams the document read by the parser into XML, then closes the parser
+     * without closing its underlying source.
      *
-     * @param xml the StringBuilder to append the indentation
-     * @param indent the current indentation level
+     * @param parser the JSON parser
+     * @param xml the writer to write the XML to
+     * @param rootName the name of the root element in the resulting XML
+     * @param options the output options
+     * @throws IOException if there is an error processing the JSON or writing the XML
      */
-    private static void addIndent(StringBuilder xml, int indent) {
-        xml.append("  ".repeat(Math.max(0, indent)));
+    static void jsonToXml(JsonParser parser, Writer xml, String rootName, ConversionOptions options)
+            throws IOException {
+        try (parser) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            new JsonToXmlStreamer(xml, options).convert(parser, rootName);
+        }
     }
 
     /**
      * Escapes special XML characters
      *
      * @param text the text to be escaped
-     * @return the escaped text
+     * @return the escaped text, or the text itself if nothing needs escaping
+     */
+    public static String escapeXml(String text) {
+        int first = firstEscapeIndex(text);
+        if (first < 0) {
+            return text;
+        }
+
+        StringWriter escaped = new StringWriter(text.length() + 16);
+        try {
+            escapeXml(text, first, escaped);
+        } catch (IOException e) {
+            // Cannot happen with in-memory output
+            throw new UncheckedIOException(e);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Escapes special XML characters, writing the result directly to the writer
+     *
+     * @param text the text to be escaped
+     * @param out the writer to write the escaped text to
+     * @throws IOException if the writer fails
+     */
+    static void escapeXml(String text, Writer out) throws IOException {
+        int first = firstEscapeIndex(text);
+        if (first < 0) {
+            out.write(text);
+        } else {
+            escapeXml(text, first, out);
+        }
+    }
+
+    /**
+     * Returns the index of the first character that needs escaping, or -1 if there is none.
+     */
+    private static int firstEscapeIndex(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < XML_ESCAPES.length && XML_ESCAPES[c] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the text from the start, copying unescaped runs in one call and replacing
+     * special characters by their entities. Everything before {@code first} is known
+     * not to need escaping.
      */
-    private static String escapeXml(String text) {
-        return text.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&apos;");
+    private static void escapeXml(String text, int first, Writer out) throws IOException {
+        int runStart = 0;
+        for (int i = first, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < XML_ESCAPES.length && XML_ESCAPES[c] != null) {
+                out.write(text, runStart, i - runStart);
+                out.write(XML_ESCAPES[c]);
+                runStart = i + 1;
+            }
+        }
+        out.write(text, runStart, text.length() - runStart);
     }
 
     /**
@@ -141,22 +321,271 @@ public class DynamicConverter {
      * @throws JsonProcessingException if there is an error processing the XML
      */
     public static String xmlToJson(String xml) throws JsonProcessingException {
-        // Remove XML declaration if present
-        String cleanXml = xml.replaceFirst("<\\?xml[^>]*\\?>\\s*", "");
+        return xmlToJson(xml, ConversionOptions.DEFAULT);
+    }
+
+    /**
+     * Converts an XML string to a JSON string.
+     *
+     * @param xml the XML string to be converted
+     * @param options the output options
+     * @return the converted JSON string
+     * @throws JsonProcessingException if there is an error processing the XML
+     */
+    public static String xmlToJson(String xml, ConversionOptions options) throws JsonProcessingException {
+        // Correct types token by token and write straight to the generator
+        StringWriter jsonWriter = new StringWriter(xml.length());
+
+        try {
+            // The parser handles the XML declaration itself; only leading whitespace,
+            // which may not precede it, is skipped without copying the document
+            int start = 0;
+            while (start < xml.length() && Character.isWhitespace(xml.charAt(start))) {
+                start++;
+            }
+            Reader reader = new StringReader(xml);
+            reader.skip(start);
+            xmlToJson(xmlMapper.getFactory().createParser(reader), jsonWriter(options).createGenerator(jsonWriter),
+                    options, false);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            // Cannot happen with in-memory input and output
+            throw new UncheckedIOException(e);
+        }
 
-        JsonNode xmlNode = xmlMapper.readTree(cleanXml);
-        JsonNode correctedNode = correctTypes(xmlNode);
-        return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(correctedNode);
+        return jsonWriter.toString();
+    }
+
+    /**
+     * Converts XML read from a byte stream to UTF-8 encoded JSON written to a byte stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param xml the stream to read XML from; the encoding is taken from the XML declaration
+     * @param json the stream to write the JSON to
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToJson(InputStream xml, OutputStream json) throws IOException {
+        xmlToJson(xml, json, ConversionOptions.DEFAULT);
+    }
+
+    /**
+     * Converts XML read from a byte stream to UTF-8 encoded JSON written to a byte stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param xml the stream to read XML from; the encoding is taken from the XML declaration
+     * @param json the stream to write the JSON to
+     * @param options the output options
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToJson(InputStream xml, OutputStream json, ConversionOptions options) throws IOException {
+        xmlToJson(xmlMapper.getFactory().createParser(xml),
+                jsonWriter(options).createGenerator(json, JsonEncoding.UTF8), options, false);
+    }
+
+    /**
+     * Converts XML read from a character stream to JSON written to a character stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param xml the reader to read XML from
+     * @param json the writer to write the JSON to
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToJson(Reader xml, Writer json) throws IOException {
+        xmlToJson(xml, json, ConversionOptions.DEFAULT);
+    }
+
+    /**
+     * Converts XML read from a character stream to JSON written to a character stream,
+     * without buffering the whole document. Neither stream is closed.
+     *
+     * @param xml the reader to read XML from
+     * @param json the writer to write the JSON to
+     * @param options the output options
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToJson(Reader xml, Writer json, ConversionOptions options) throws IOException {
+        xmlToJson(xmlMapper.getFactory().createParser(xml), jsonWriter(options).createGenerator(json), options, false);
+    }
+
+    /**
+     * Converts UTF-8 encoded XML read from a byte stream to UTF-8 encoded JSON written to
+     * a byte stream. If the options split records, batches of the root's child elements
+     * are converted in parallel on the executor and written back in order, giving the
+     * same output as the sequential conversion; otherwise the document is converted
+     * sequentially. Neither stream is closed, and the executor is not shut down.
+     *
+     * @param xml the stream to read XML from; it must not have a DOCTYPE declaration
+     * @param json the stream to write the JSON to
+     * @param options the output options
+     * @param executor the executor converting batches of records
+     * @param chunkSize the approximate number of input characters per batch
+     * @param maxInFlight the maximum number of batches converted or awaiting output at once
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToJson(InputStream xml, OutputStream json, ConversionOptions options,
+                                 ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        if (!options.isSplitRecords()) {
+            xmlToJson(xml, json, options);
+            return;
+        }
+        recordStreamer(options, false).convert(xml, json, executor, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Converts XML read from a byte stream to newline-delimited JSON (NDJSON) written to a
+     * byte stream: each child element of the root becomes one compact JSON value on a
+     * line of its own. Records are streamed one at a time, and neither stream is closed.
+     *
+     * @param xml the stream to read XML from; the encoding is taken from the XML declaration
+     * @param json the stream to write the UTF-8 encoded NDJSON to
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToNdjson(InputStream xml, OutputStream json) throws IOException {
+        xmlToJson(xmlMapper.getFactory().createParser(xml),
+                jsonWriter(NDJSON_OPTIONS).createGenerator(json, JsonEncoding.UTF8), NDJSON_OPTIONS, true);
+    }
+
+    /**
+     * Converts UTF-8 encoded XML read from a byte stream to newline-delimited JSON (NDJSON)
+     * written to a byte stream, converting batches of the root's child elements in parallel
+     * on the executor. The output is identical to that of the sequential conversion.
+     * Neither stream is closed, and the executor is not shut down.
+     *
+     * @param xml the stream to read XML from; it must not have a DOCTYPE declaration
+     * @param json the stream to write the UTF-8 encoded NDJSON to
+     * @param executor the executor converting batches of records
+     * @param chunkSize the approximate number of input characters per batch
+     * @param maxInFlight the maximum number of batches converted or awaiting output at once
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToNdjson(InputStream xml, OutputStream json,
+                                   ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        xmlToNdjson(xml, json, TypeMap.NONE, executor, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Converts UTF-8 encoded XML to newline-delimited JSON (NDJSON) in parallel as
+     * {@link #xmlToNdjson(InputStream, OutputStream, ExecutorService, int, int)} does,
+     * converting the values at the paths of the type map to their declared types.
+     *
+     * @param xml the stream to read XML from; it must not have a DOCTYPE declaration
+     * @param json the stream to write the UTF-8 encoded NDJSON to
+     * @param types the declared types of values, whose paths start with the record element names
+     * @param executor the executor converting batches of records
+     * @param chunkSize the approximate number of input characters per batch
+     * @param maxInFlight the maximum number of batches converted or awaiting output at once
+     * @throws IOException if there is an error reading, processing or writing the data
+     */
+    public static void xmlToNdjson(InputStream xml, OutputStream json, TypeMap types,
+                                   ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        recordStreamer(NDJSON_OPTIONS.withTypes(types), true).convert(xml, json, executor, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Streams the document read by the parser into the generator, as a whole or record by
+     * record as the options say, then closes both without closing their underlying source
+     * and target.
+     *
+     * @param parser the XML parser
+     * @param generator the JSON generator
+     * @param options the output options
+     * @param lines true to write split records one per line instead of as a JSON array
+     * @throws IOException if there is an error processing the XML or writing the JSON
+     */
+    static void xmlToJson(JsonParser parser, JsonGenerator generator, ConversionOptions options,
+                          boolean lines) throws IOException {
+        try (parser; generator) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (options.isSplitRecords()) {
+                recordStreamer(options, lines).convert(parser, generator);
+            } else {
+                new XmlToJsonStreamer(generator, options.getTypes()).convert(parser);
+            }
+        }
+    }
+
+    /**
+     * Returns a streamer of the records of XML documents
+     *
+     * @param options the output options, which must split records
+     * @param lines true to write one record per line instead of a JSON array
+     * @return the streamer
+     */
+    private static XmlRecordsToJsonStreamer recordStreamer(ConversionOptions options, boolean lines) {
+        return new XmlRecordsToJsonStreamer(xmlMapper.getFactory(), jsonWriter(options), options.isPretty(), lines,
+                options.getTypes());
+    }
+
+    /**
+     * Returns the factory of the parsers of JSON and NDJSON input.
+     *
+     * @return the JSON factory
+     */
+    static JsonFactory jsonFactory() {
+        return jsonMapper.getFactory();
+    }
+
+    /**
+     * Returns the factory of the parsers of XML input.
+     *
+     * @return the XML factory
+     */
+    static XmlFactory xmlFactory() {
+        return xmlMapper.getFactory();
+    }
+
+    /**
+     * Returns a JSON writer producing minified output, or pretty-printed output
+     * indented by the configured width. When records are split, the writer puts
+     * nothing between top-level values, since records are separated by the streamer.
+     *
+     * @param options the output options
+     * @return the JSON writer
+     */
+    static ObjectWriter jsonWriter(ConversionOptions options) {
+        if (!options.isPretty()) {
+            return options.isSplitRecords() ? compactJsonWriter.withRootValueSeparator("") : compactJsonWriter;
+        }
+        boolean defaultIndent = options.getIndentWidth() == ConversionOptions.DEFAULT.getIndentWidth();
+        if (defaultIndent && !options.isSplitRecords()) {
+            return prettyJsonWriter;
+        }
+        DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
+        if (!defaultIndent) {
+            printer = printer.withObjectIndenter(
+                    new DefaultIndenter(" ".repeat(options.getIndentWidth()), DefaultIndenter.SYS_LF));
+        }
+        if (options.isSplitRecords()) {
+            printer = printer.withRootSeparator("");
+        }
+        return jsonMapper.writer(printer);
     }
 
     /**
      * Corrects the types of a JSON node, and all its descendants,
      * where they are represented as strings in the XML.
+     * <p>
+     * {@link #xmlToJson(String)} applies the same rules while streaming; this tree
+     * variant is kept for callers that already hold a tree read from XML.
      *
      * @param node the JSON node
      * @return the corrected JSON node
      */
-    private static JsonNode correctTypes(JsonNode node) {
+    public static JsonNode correctTypes(JsonNode node) {
+        TypeCorrectionEvent event = new TypeCorrectionEvent();
+        event.begin();
+        JsonNode corrected = correctTree(node);
+        event.end();
+        if (event.shouldCommit()) {
+            event.guessedValues = countText(node);
+            event.commit();
+        }
+        return corrected;
+    }
+
+    private static JsonNode correctTree(JsonNode node) {
         if (node.isObject()) {
             // Check for xsi:nil attribute
             if (node.has("@xsi:nil") && node.get("@xsi:nil").asText().equalsIgnoreCase("true")) {
@@ -177,58 +606,50 @@ public class DynamicConverter {
                 JsonNode value = entry.getValue();
 
                 // Handle arrays that Jackson converts to single elements
-                newObj.set(key, correctTypes(value));
+                newObj.set(key, correctTree(value));
             }
             return newObj;
         } else if (node.isArray()) {
             ArrayNode newArr = JsonNodeFactory.instance.arrayNode();
             for (JsonNode item : node) {
-                newArr.add(correctTypes(item));
+                newArr.add(correctTree(item));
             }
             return newArr;
         } else if (node.isTextual()) {
-            String text = node.asText();
-
-            // Handle empty strings
-            if (text.isEmpty()) {
-                return node;
-            }
-
-            // Try to parse as integer
-            if (text.matches("-?\\d+")) {
-                try {
-                    long longValue = Long.parseLong(text);
-                    // Check for overflow
-                    if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
-                        return new IntNode((int) longValue);
-                    } else {
-                        return new LongNode(longValue);
-                    }
-                } catch (NumberFormatException e) {
-                    return node;
-                }
-            }
-            // Try to parse as double
-            else if (text.matches("-?\\d*\\.\\d+")) {
-                try {
-                    return new DoubleNode(Double.parseDouble(text));
-                } catch (NumberFormatException e) {
-                    return node;
-                }
-            }
-            // Try to parse as boolean
-            else if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
-                return BooleanNode.valueOf(Boolean.parseBoolean(text));
-            }
-            // Try to parse as null
-            else if (text.equalsIgnoreCase("null")) {
-                return NullNode.getInstance();
-            }
-            else {
-                return node;
-            }
+            return correctText(node);
         } else {
             return node;
         }
     }
-}
\ No newline at end of file
+
+    private static long countText(JsonNode node) {
+        long text = node.isTextual() ? 1 : 0;
+        for (JsonNode child : node) {
+            text += countText(child);
+        }
+        return text;
+    }
+
+    /**
+     * Corrects the type of a single text value read from XML.
+     * Integers, floats, booleans and the literal "null" are converted to their
+     * JSON counterparts; any other text is returned unchanged.
+     *
+     * @param node the text node
+     * @return the corrected JSON node
+     */
+    static JsonNode correctText(JsonNode node) {
+        ScalarScanner scanner = new ScalarScanner();
+
+        // Classify and parse in a single pass over the text
+        return switch (scanner.scan(node.asText())) {
+            case INT -> IntNode.valueOf((int) scanner.longValue());
+            case LONG -> LongNode.valueOf(scanner.longValue());
+            case DOUBLE -> DoubleNode.valueOf(scanner.doubleValue());
+            case TRUE -> BooleanNode.TRUE;
+            case FALSE -> BooleanNode.FALSE;
+            case NULL -> NullNode.getInstance();
+            case STRING -> node;
+        };
+    }
+}
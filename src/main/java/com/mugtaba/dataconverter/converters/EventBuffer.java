@@ -0,0 +1,294 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A growable buffer of JSON write events that can be replayed to a {@link JsonGenerator}.
+ * <p>
+ * Unlike Jackson's {@code TokenBuffer}, a field name written to the buffer can later be
+ * turned into the opening of an array with {@link #openArrayAt(int)}. This lets the XML
+ * to JSON conversion buffer an element until it knows whether a repeated sibling
+ * follows, without copying nested buffers into each other. Fields repeated further
+ * down an object can be merged with their earlier occurrences by {@link #groupFields}.
+ */
+final class EventBuffer {
+
+    private static final byte START_OBJECT = 0;
+    private static final byte END_OBJECT = 1;
+    private static final byte START_ARRAY = 2;
+    private static final byte END_ARRAY = 3;
+    private static final byte FIELD_NAME = 4;
+    private static final byte FIELD_NAME_ARRAY = 5;
+    private static final byte STRING = 6;
+    private static final byte INT = 7;
+    private static final byte LONG = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte TRUE = 10;
+    private static final byte FALSE = 11;
+    private static final byte NULL = 12;
+    private static final byte NUMBER_TEXT = 13;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private long[] numbers = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /** Number of flushes so far, which invalidate the positions of earlier events. */
+    private long generation;
+
+    void writeStartObject() {
+        add(START_OBJECT);
+    }
+
+    void writeEndObject() {
+        add(END_OBJECT);
+    }
+
+    void writeStartArray() {
+        add(START_ARRAY);
+    }
+
+    void writeEndArray() {
+        add(END_ARRAY);
+    }
+
+    /**
+     * Writes a field name.
+     *
+     * @param name the field name
+     * @return the position of the event, for {@link #openArrayAt(int)}
+     */
+    int writeFieldName(String name) {
+        texts[size] = name;
+        return add(FIELD_NAME);
+    }
+
+    /**
+     * Turns a buffered field name into a field name followed by the start of an array.
+     *
+     * @param position the position returned by {@link #writeFieldName(String)}
+     */
+    void openArrayAt(int position) {
+        types[position] = FIELD_NAME_ARRAY;
+    }
+
+    void writeString(String text) {
+        texts[size] = text;
+        add(STRING);
+    }
+
+    void writeNumber(int value) {
+        numbers[size] = value;
+        add(INT);
+    }
+
+    void writeNumber(long value) {
+        numbers[size] = value;
+        add(LONG);
+    }
+
+    void writeNumber(double value) {
+        numbers[size] = Double.doubleToRawLongBits(value);
+        add(DOUBLE);
+    }
+
+    /**
+     * Writes a number as its text, which must be a valid JSON number.
+     *
+     * @param text the digits of the number
+     */
+    void writeNumber(String text) {
+        texts[size] = text;
+        add(NUMBER_TEXT);
+    }
+
+    void writeBoolean(boolean value) {
+        add(value ? TRUE : FALSE);
+    }
+
+    void writeNull() {
+        add(NULL);
+    }
+
+    /**
+     * Returns the number of flushes so far. Positions returned while it had another
+     * value no longer refer to buffered events.
+     *
+     * @return the flush count
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Returns the position the next event will be written at.
+     *
+     * @return the number of buffered events
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Merges the fields written since a position that share a name, as the fields of an
+     * object with repeated names are in the tree read from XML: each name is written once,
+     * where it first occurred, followed by an array of all its values in document order.
+     * Values that already are arrays contribute their items. The position must be that
+     * of a field name directly within the object, and the buffer must hold nothing but
+     * the fields of that object from there on.
+     * <p>
+     * An array of the object may already have been flushed without its end, so that later
+     * occurrences of its name can still be added to it. Their values then come first, as
+     * further items of that array, followed by its end and the other fields.
+     *
+     * @param from the position of the first field to merge
+     * @param openArray the name of the array left open before the position, or null
+     */
+    void groupFields(int from, String openArray) {
+        // Each occurrence of a name: the range of its value, or of its items if an array
+        Map<String, List<int[]>> occurrences = new LinkedHashMap<>();
+        if (openArray != null) {
+            occurrences.put(openArray, new ArrayList<>());
+        }
+        for (int i = from; i < size; ) {
+            boolean array = types[i] == FIELD_NAME_ARRAY;
+            int start = i + 1;
+            int end = array ? endOfItems(start) : endOfValue(start);
+            occurrences.computeIfAbsent(texts[i], name -> new ArrayList<>()).add(new int[] {start, end, array ? 1 : 0});
+            i = array ? end + 1 : end;
+        }
+
+        byte[] fieldTypes = Arrays.copyOfRange(types, from, size);
+        String[] fieldTexts = Arrays.copyOfRange(texts, from, size);
+        long[] fieldNumbers = Arrays.copyOfRange(numbers, from, size);
+        int position = from;
+        for (Map.Entry<String, List<int[]>> name : occurrences.entrySet()) {
+            List<int[]> ranges = name.getValue();
+            boolean open = name.getKey().equals(openArray);
+            boolean array = open || ranges.size() > 1 || ranges.get(0)[2] == 1;
+            if (!open) {
+                types[position] = array ? FIELD_NAME_ARRAY : FIELD_NAME;
+                texts[position++] = name.getKey();
+            }
+            for (int[] range : ranges) {
+                int length = range[1] - range[0];
+                System.arraycopy(fieldTypes, range[0] - from, types, position, length);
+                System.arraycopy(fieldTexts, range[0] - from, texts, position, length);
+                System.arraycopy(fieldNumbers, range[0] - from, numbers, position, length);
+                position += length;
+            }
+            if (array) {
+                types[position] = END_ARRAY;
+                texts[position++] = null;
+            }
+        }
+
+        // Merging only ever removes field names and array ends, except for the end of an
+        // open array that no later field adds to, which takes the free slot past the end
+        if (position < size) {
+            Arrays.fill(texts, position, size, null);
+        }
+        size = position;
+        if (size == types.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Writes all buffered events to the generator and empties the buffer.
+     *
+     * @param out the generator to write to
+     * @throws IOException if the generator fails
+     */
+    void flushTo(JsonGenerator out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            switch (types[i]) {
+                case START_OBJECT -> out.writeStartObject();
+                case END_OBJECT -> out.writeEndObject();
+                case START_ARRAY -> out.writeStartArray();
+                case END_ARRAY -> out.writeEndArray();
+                case FIELD_NAME -> out.writeFieldName(texts[i]);
+                case FIELD_NAME_ARRAY -> {
+                    out.writeFieldName(texts[i]);
+                    out.writeStartArray();
+                }
+                case STRING -> out.writeString(texts[i]);
+                case INT -> out.writeNumber((int) numbers[i]);
+                case LONG -> out.writeNumber(numbers[i]);
+                case DOUBLE -> out.writeNumber(Double.longBitsToDouble(numbers[i]));
+                case NUMBER_TEXT -> out.writeNumber(texts[i]);
+                case TRUE -> out.writeBoolean(true);
+                case FALSE -> out.writeBoolean(false);
+                default -> out.writeNull();
+            }
+        }
+        // Don't hold on to the memory of an unusually large element
+        if (types.length > RETAINED_CAPACITY) {
+            types = new byte[INITIAL_CAPACITY];
+            texts = new String[INITIAL_CAPACITY];
+            numbers = new long[INITIAL_CAPACITY];
+        } else {
+            // Only the slots written since the last flush can hold strings
+            Arrays.fill(texts, 0, size, null);
+        }
+        size = 0;
+        generation++;
+    }
+
+    /**
+     * Returns the position after the value starting at a position
+     */
+    private int endOfValue(int position) {
+        int depth = 0;
+        do {
+            depth += nesting(types[position++]);
+        } while (depth > 0);
+        return position;
+    }
+
+    /**
+     * Returns the position of the end of the array whose items start at a position
+     */
+    private int endOfItems(int position) {
+        for (int depth = 1; ; position++) {
+            depth += nesting(types[position]);
+            if (depth == 0) {
+                return position;
+            }
+        }
+    }
+
+    private static int nesting(byte type) {
+        return switch (type) {
+            case START_OBJECT, START_ARRAY, FIELD_NAME_ARRAY -> 1;
+            case END_OBJECT, END_ARRAY -> -1;
+            default -> 0;
+        };
+    }
+
+    private int add(byte type) {
+        int position = size;
+        types[position] = type;
+        if (++size == types.length) {
+            grow();
+        }
+        return position;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+        numbers = Arrays.copyOf(numbers, capacity);
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning the conversion of one file by {@link FileConverter}.
+ * <p>
+ * Reading, parsing, type correction, building the output and writing alternate token
+ * by token, so the phases are not separate events: the time spent in the input and
+ * output streams is recorded as the read and write times, and the rest as the convert
+ * time.
+ */
+@Name("dataconverter.FileConversion")
+@Label("File Conversion")
+@Category("Data Converter")
+@Description("Conversion of one file, with the time spent reading, converting and writing")
+@StackTrace(false)
+final class FileConversionEvent extends Event {
+
+    @Label("Input File")
+    String inputFile;
+
+    @Label("Output File")
+    String outputFile;
+
+    @Label("Input Format")
+    String inputFormat;
+
+    @Label("Output Format")
+    String outputFormat;
+
+    @Label("Skipped")
+    @Description("The output was up to date in the cache and nothing was converted")
+    boolean skipped;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Tokens")
+    @Description("Tokens of the input, or -1 if they were not counted")
+    long tokens;
+
+    @Label("Read Time")
+    @Timespan
+    long readTime;
+
+    @Label("Convert Time")
+    @Description("Parsing, type correction and serialization")
+    @Timespan
+    long convertTime;
+
+    @Label("Write Time")
+    @Timespan
+    long writeTime;
+}
@@ -0,0 +1,547 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import main.java.com.mugtaba.dataconverter.cache.ConversionCache;
+import main.java.com.mugtaba.dataconverter.spi.Converter;
+import main.java.com.mugtaba.dataconverter.spi.ConverterRegistry;
+import main.java.com.mugtaba.dataconverter.spi.EventStream;
+import main.java.com.mugtaba.dataconverter.utils.FileUtils;
+import main.java.com.mugtaba.dataconverter.utils.MeteredInputStream;
+import main.java.com.mugtaba.dataconverter.utils.MeteredOutputStream;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Converts files between any two formats of the {@link ConverterRegistry}, streaming from
+ * the input file to the output file.
+ * <p>
+ * Instances hold only immutable settings and can be shared between threads.
+ */
+public class FileConverter {
+
+    /** Bytes of NDJSON lines or JSON array items, or characters of XML records, converted together in parallel. */
+    private static final int RECORD_CHUNK_SIZE = 1024 * 1024;
+
+    private final ConversionOptions options;
+    private final int bufferSize;
+    private final boolean directWrite;
+    private final ExecutorService recordExecutor;
+    private final int parallelism;
+    private final ConversionCache cache;
+    private final boolean statistics;
+    private final boolean mappedInput;
+
+    /**
+     * Creates a file converter that converts each file sequentially.
+     *
+     * @param options     the output options
+     * @param bufferSize  the size of the output write buffer in bytes
+     * @param directWrite whether to write output through a FileChannel with an off-heap buffer
+     */
+    public FileConverter(ConversionOptions options, int bufferSize, boolean directWrite) {
+        this(options, bufferSize, directWrite, null, 1);
+    }
+
+    /**
+     * Creates a file converter that converts the records of a file in parallel where the
+     * input allows it: the lines of NDJSON, the items of a top-level JSON array, or the
+     * children of the XML root when records are split or written as NDJSON. The executor
+     * is not shut down by the converter.
+     *
+     * @param options        the output options
+     * @param bufferSize     the size of the output write buffer in bytes
+     * @param directWrite    whether to write output through a FileChannel with an off-heap buffer
+     * @param recordExecutor the executor converting records, or null to convert sequentially
+     * @param parallelism    the number of threads of the executor
+     */
+    public FileConverter(ConversionOptions options, int bufferSize, boolean directWrite,
+                         ExecutorService recordExecutor, int parallelism) {
+        this(options, bufferSize, directWrite, recordExecutor, parallelism, null, false, true);
+    }
+
+    private FileConverter(ConversionOptions options, int bufferSize, boolean directWrite,
+                          ExecutorService recordExecutor, int parallelism, ConversionCache cache,
+                          boolean statistics, boolean mappedInput) {
+        this.options = options;
+        this.bufferSize = bufferSize;
+        this.directWrite = directWrite;
+        this.recordExecutor = recordExecutor;
+        this.parallelism = parallelism;
+        this.cache = cache;
+        this.statistics = statistics;
+        this.mappedInput = mappedInput;
+    }
+
+    /**
+     * Returns a converter with the same settings that skips inputs whose output is up to
+     * date in the cache, and only replaces outputs whose content changes. The cache is
+     * updated as files are converted but not saved by the converter.
+     *
+     * @param cache the cache of earlier conversions, or null to convert every input
+     * @return the new converter
+     */
+    public FileConverter withCache(ConversionCache cache) {
+        return new FileConverter(options, bufferSize, directWrite, recordExecutor, parallelism, cache, statistics,
+                mappedInput);
+    }
+
+    /**
+     * Returns a converter with the same settings that also counts the tokens of each
+     * input and the bytes allocated converting it. Read, convert and write times are
+     * always measured; the counts cost a little per token, and loading the JVM's
+     * allocation counters slows down startup.
+     *
+     * @param statistics true to count tokens and allocation in each {@link ConversionResult}
+     * @return the new converter
+     */
+    public FileConverter withStatistics(boolean statistics) {
+        return new FileConverter(options, bufferSize, directWrite, recordExecutor, parallelism, cache, statistics,
+                mappedInput);
+    }
+
+    /**
+     * Returns a converter with the same settings that reads inputs through a memory
+     * mapping, or with plain {@code FileChannel} reads. A mapping spares a copy of every
+     * byte, but its page faults block the carrier thread of a virtual thread, so on
+     * virtual threads reading slow storage channel reads let many more reads overlap.
+     *
+     * @param mappedInput true to map inputs, the default, or false to read them from a channel
+     * @return the new converter
+     */
+    public FileConverter withMappedInput(boolean mappedInput) {
+        return new FileConverter(options, bufferSize, directWrite, recordExecutor, parallelism, cache, statistics,
+                mappedInput);
+    }
+
+    /**
+     * Converts a file from the input format to the output format. The output is written
+     * next to the input file, named by {@link #generateOutputFileName(String, String)}.
+     *
+     * @param inputFile    the path to the input file
+     * @param inputFormat  the input format, such as json, ndjson or xml
+     * @param outputFormat the output format, such as json, ndjson or xml
+     * @return the path to the output file
+     * @throws IOException              if the file cannot be read, converted or written
+     * @throws IllegalArgumentException if the formats are the same or not registered, or the input file is empty
+     * @see #convertFile(String, String, String)
+     */
+    public String convert(String inputFile, String inputFormat, String outputFormat) throws IOException {
+        return convertFile(inputFile, inputFormat, outputFormat).outputFile();
+    }
+
+    /**
+     * Converts a file as {@link #convert(String, String, String)} does, and returns the
+     * statistics of the conversion.
+     *
+     * @param inputFile    the path to the input file
+     * @param inputFormat  the input format, such as json, ndjson or xml
+     * @param outputFormat the output format, such as json, ndjson or xml
+     * @return the output file and the statistics of the conversion
+     * @throws IOException              if the file cannot be read, converted or written
+     * @throws IllegalArgumentException if the formats are the same or not registered, or the input file is empty
+     */
+    public ConversionResult convertFile(String inputFile, String inputFormat, String outputFormat)
+            throws IOException {
+        FileConversionEvent event = new FileConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long allocatedBefore = statistics ? AllocationCounters.currentThread() : -1;
+
+        // Validate conversion is needed
+        if (inputFormat.equalsIgnoreCase(outputFormat)) {
+            throw new IllegalArgumentException(
+                    "Input and output formats are the same (" + inputFormat + "). No conversion needed.");
+        }
+        ConverterRegistry registry = ConverterRegistry.getDefault();
+        registry.get(inputFormat);
+        registry.get(outputFormat);
+
+        // Generate output file path
+        String outputFile = generateOutputFileName(inputFile, outputFormat);
+
+        Phases phases;
+        if (cache == null) {
+            phases = convertAndReplace(inputFile, inputFormat, outputFormat, Paths.get(outputFile), null);
+        } else {
+            // Skip unchanged inputs, and leave outputs that come out the same untouched
+            Path input = Paths.get(inputFile);
+            if (!Files.isRegularFile(input)) {
+                throw new IOException("File does not exist: " + inputFile);
+            }
+            String settings = inputFormat.toLowerCase() + " to " + outputFormat.toLowerCase() + ", " + options;
+            ConversionCache.Lookup lookup = cache.lookup(input, Paths.get(outputFile), settings);
+            phases = lookup.isUpToDate()
+                    ? null
+                    : convertAndReplace(inputFile, inputFormat, outputFormat, Paths.get(outputFile), lookup);
+        }
+
+        long allocated = allocatedBefore < 0 ? -1 : AllocationCounters.currentThread() - allocatedBefore
+                + (phases == null ? 0 : phases.workerAllocated());
+        long total = System.nanoTime() - start;
+        ConversionResult result = phases == null
+                ? new ConversionResult(inputFile, outputFile, inputFormat, outputFormat, true,
+                        0, 0, 0, 0, 0, 0, total, allocated)
+                : new ConversionResult(inputFile, outputFile, inputFormat, outputFormat, false,
+                        phases.bytesIn(), phases.bytesOut(), phases.tokens(),
+                        phases.readNanos(), phases.convertNanos(), phases.writeNanos(), total, allocated);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputFile = result.inputFile();
+            event.outputFile = result.outputFile();
+            event.inputFormat = result.inputFormat();
+            event.outputFormat = result.outputFormat();
+            event.skipped = result.skipped();
+            event.bytesIn = result.bytesIn();
+            event.bytesOut = result.bytesOut();
+            event.tokens = result.tokens();
+            event.readTime = result.readNanos();
+            event.convertTime = result.convertNanos();
+            event.writeTime = result.writeNanos();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Measurements of one conversion; workerAllocated is what threads converting records
+     * in parallel allocated for it
+     */
+    private record Phases(long bytesIn, long bytesOut, long tokens, long readNanos, long convertNanos,
+                          long writeNanos, long workerAllocated) {
+    }
+
+    /**
+     * Converts the input file into a new file at the given path, which is left partially
+     * written if the conversion fails
+     */
+    private Phases convertTo(String inputFile, String inputFormat, String outputFormat, String outputFile)
+            throws IOException {
+        // Open input file; its bytes are fed to the parser straight from the mapping or the channel
+        try (InputStream opened = mappedInput
+                ? FileUtils.openInputStream(inputFile)
+                : FileUtils.openChannelInputStream(inputFile, FileUtils.DEFAULT_BUFFER_SIZE)) {
+            if (opened.available() == 0) {
+                throw new IllegalArgumentException("Input file is empty: " + inputFile);
+            }
+
+            // Perform conversion, writing output incrementally as it is produced
+            String rootElementName = extractRootElementName(inputFile);
+            MeteredInputStream input = new MeteredInputStream(opened);
+            long tokens = -1;
+            AllocationCountingExecutor workers = statistics && recordExecutor != null
+                    ? new AllocationCountingExecutor(recordExecutor)
+                    : null;
+            long start = System.nanoTime();
+
+            MeteredOutputStream output = new MeteredOutputStream(
+                    FileUtils.openOutputStream(outputFile, bufferSize, directWrite));
+            try (output) {
+                try {
+                    if (recordExecutor == null || !convertInParallel(input, output, inputFormat, outputFormat,
+                            rootElementName, workers != null ? workers : recordExecutor)) {
+                        tokens = convertSequentially(input, output, inputFormat, outputFormat, rootElementName);
+                    }
+                } catch (Exception e) {
+                    throw new IOException("Conversion failed: " + e.getMessage(), e);
+                }
+            }
+
+            long elapsed = System.nanoTime() - start;
+            return new Phases(input.getBytes(), output.getBytes(), tokens, input.getNanos(),
+                    elapsed - input.getNanos() - output.getNanos(), output.getNanos(),
+                    workers != null ? workers.getAllocated() : 0);
+        }
+    }
+
+    /**
+     * Converts the input through the registered converters of the two formats, as
+     * {@link ConverterRegistry#convert} does, counting the tokens on the way if asked to
+     *
+     * @return the number of tokens read, or -1 if they were not counted
+     */
+    private long convertSequentially(InputStream input, OutputStream output, String inputFormat,
+                                     String outputFormat, String rootElementName) throws IOException {
+        ConverterRegistry registry = ConverterRegistry.getDefault();
+        if (!statistics) {
+            registry.convert(input, inputFormat, output, outputFormat, rootElementName, options);
+            return -1;
+        }
+        Converter reader = registry.get(inputFormat);
+        Converter writer = registry.get(outputFormat);
+        try (EventStream events = reader.read(input, options)) {
+            TokenCountingParser parser = new TokenCountingParser(events.getParser());
+            writer.write(new EventStream(parser, events.isRecords(), events.isTextOnly()),
+                    output, rootElementName, options);
+            return parser.getTokens();
+        }
+    }
+
+    /**
+     * Converts the input file next to the output file and moves the result over the
+     * output once it is complete, so that a failed conversion leaves an earlier output as
+     * it was and readers never see a partial one. With a cache lookup, the output is only
+     * replaced if their bytes differ, so that consumers watching the output don't see a
+     * change when there is none, and the conversion is recorded in the cache.
+     *
+     * @param lookup the cache lookup of the input, or null to always replace the output
+     */
+    private Phases convertAndReplace(String inputFile, String inputFormat, String outputFormat, Path output,
+                                     ConversionCache.Lookup lookup) throws IOException {
+        // A hidden name that batch runs don't pick up as input
+        Path temp = output.resolveSibling("." + output.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Phases phases = convertTo(inputFile, inputFormat, outputFormat, temp.toString());
+            boolean written = lookup == null || !Files.isRegularFile(output) || Files.mismatch(temp, output) != -1;
+            if (written) {
+                try {
+                    Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (lookup != null) {
+                cache.record(lookup, written);
+            }
+            return phases;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * The JVM's per-thread allocation counters, loaded on first use.
+     */
+    private static final class AllocationCounters {
+
+        private static final ThreadMXBean THREADS = load();
+
+        /**
+         * Returns the number of bytes allocated by the current thread so far, or -1 if
+         * the JVM doesn't measure it
+         */
+        static long currentThread() {
+            return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        }
+
+        private static ThreadMXBean load() {
+            if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A view of the record executor that adds up the bytes each task allocates on its
+     * worker thread, so that the allocation of a parallel conversion can be reported in
+     * full. Tasks are measured within the task itself, before their future completes, so
+     * every chunk that was waited for is counted.
+     */
+    private static final class AllocationCountingExecutor extends AbstractExecutorService {
+
+        private final ExecutorService executor;
+        private final LongAdder allocated = new LongAdder();
+
+        AllocationCountingExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Returns the bytes allocated by the tasks completed so far.
+         *
+         * @return the number of bytes
+         */
+        long getAllocated() {
+            return allocated.sum();
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Callable<T> task) {
+            return super.newTaskFor(() -> {
+                long before = AllocationCounters.currentThread();
+                try {
+                    return task.call();
+                } finally {
+                    long after = AllocationCounters.currentThread();
+                    if (before >= 0 && after >= 0) {
+                        allocated.add(after - before);
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Runnable task, T value) {
+            return newTaskFor(() -> {
+                task.run();
+                return value;
+            });
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executor.execute(command);
+        }
+
+        // The record executor is shared and shut down by its owner, not through this view
+
+        @Override
+        public void shutdown() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * Converts the records of the input in parallel if there is a parallel conversion
+     * between the two formats: NDJSON lines or the items of a top-level JSON array to XML,
+     * or the children of the XML root to a JSON array or NDJSON
+     *
+     * @return false if the input must be converted sequentially instead
+     */
+    private boolean convertInParallel(InputStream input, OutputStream output, String inputFormat,
+                                      String outputFormat, String rootElementName, ExecutorService executor)
+            throws IOException {
+        // Keep a second chunk per thread queued so workers never wait for the reader
+        int maxInFlight = parallelism * 2;
+        switch (inputFormat.toLowerCase() + " to " + outputFormat.toLowerCase()) {
+            case "json to xml" -> DynamicConverter.jsonToXml(input, output, rootElementName, options,
+                    executor, RECORD_CHUNK_SIZE, maxInFlight);
+            case "ndjson to xml" -> DynamicConverter.ndjsonToXml(input, output, rootElementName, options,
+                    executor, RECORD_CHUNK_SIZE, maxInFlight);
+            case "xml to json" -> {
+                if (!options.isSplitRecords()) {
+                    return false;
+                }
+                DynamicConverter.xmlToJson(input, output, options, executor, RECORD_CHUNK_SIZE, maxInFlight);
+            }
+            case "xml to ndjson" -> DynamicConverter.xmlToNdjson(input, output, options.getTypes(),
+                    executor, RECORD_CHUNK_SIZE, maxInFlight);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Auto-detects input format based on file extension
+     *
+     * @param inputFile the path to the input file
+     * @return the detected format, such as json, ndjson or xml
+     * @throws IllegalArgumentException if the extension is not recognized
+     */
+    public static String detectInputFormat(String inputFile) {
+        ConverterRegistry registry = ConverterRegistry.getDefault();
+        String format = registry.detectFormat(inputFile);
+        if (format == null) {
+            throw new IllegalArgumentException(
+                    "Cannot auto-detect format for file: " + inputFile +
+                            ". Please specify --format=<format>, one of " + String.join(", ", registry.getFormats()));
+        }
+        return format;
+    }
+
+    /**
+     * Extracts root element name from file name or path
+     *
+     * @param inputFile the path to the input file
+     * @return the root element name in PascalCase
+     */
+    public static String extractRootElementName(String inputFile) {
+        Path path = Paths.get(inputFile);
+        String fileName = path.getFileName().toString();
+        String nameWithoutExtension = fileName.substring(0, fileName.lastIndexOf('.'));
+
+        // Convert to PascalCase for XML root element
+        return toPascalCase(nameWithoutExtension);
+    }
+
+    /**
+     * Converts a string to PascalCase
+     */
+    private static String toPascalCase(String input) {
+        if (input == null || input.isEmpty()) {
+            return "Root";
+        }
+
+        StringBuilder result = new StringBuilder();
+        boolean capitalizeNext = true;
+
+        for (char c : input.toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                if (capitalizeNext) {
+                    result.append(Character.toUpperCase(c));
+                    capitalizeNext = false;
+                } else {
+                    result.append(Character.toLowerCase(c));
+                }
+            } else {
+                capitalizeNext = true;
+            }
+        }
+
+        return !result.isEmpty() ? result.toString() : "Root";
+    }
+
+    /**
+     * Generates output file name based on input file and target format
+     *
+     * @param inputFile    the path to the input file
+     * @param outputFormat the output format
+     * @return the path to the output file, in the same directory as the input file
+     */
+    public static String generateOutputFileName(String inputFile, String outputFormat) {
+        Path inputPath = Paths.get(inputFile);
+        String fileName = inputPath.getFileName().toString();
+        String nameWithoutExtension = fileName.substring(0, fileName.lastIndexOf('.'));
+        String newExtension = "." + outputFormat.toLowerCase();
+
+        Path parentDir = inputPath.getParent();
+        String outputFileName = nameWithoutExtension + "_converted" + newExtension;
+
+        if (parentDir != null) {
+            return parentDir.resolve(outputFileName).toString();
+        } else {
+            return outputFileName;
+        }
+    }
+}
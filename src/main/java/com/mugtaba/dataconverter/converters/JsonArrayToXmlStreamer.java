@@ -0,0 +1,197 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Split-and-merge JSON to XML conversion of documents that are one large top-level array.
+ * <p>
+ * The calling thread scans the raw bytes only far enough to find the commas separating
+ * the items of the top-level array, tracking the open brackets and string literals, and
+ * cuts the array into chunks of whole items. A bracket closed by the wrong kind of
+ * bracket fails the conversion, as it does when the document is parsed whole. A
+ * {@link ParallelRecordWriter} parses and converts the chunks concurrently and writes
+ * the resulting record elements in order, so the output is identical to that of a
+ * sequential conversion. Documents that are not a top-level array are converted
+ * sequentially.
+ */
+final class JsonArrayToXmlStreamer {
+
+    private final JsonFactory factory;
+    private final ConversionOptions options;
+
+    JsonArrayToXmlStreamer(JsonFactory factory, ConversionOptions options) {
+        this.factory = factory;
+        this.options = options;
+    }
+
+    /**
+     * Converts the UTF-8 encoded JSON document read from the stream into XML.
+     *
+     * @param json the stream to read JSON from
+     * @param xml the stream to write the UTF-8 encoded XML to
+     * @param rootName the name of the root element
+     * @param executor the executor converting chunks
+     * @param chunkSize the approximate number of bytes per chunk
+     * @param maxInFlight the maximum number of chunks queued, running or awaiting output
+     * @throws IOException if there is an error reading the JSON or writing the XML
+     */
+    void convert(InputStream json, OutputStream xml, String rootName,
+                 ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        byte[] buffer = new byte[chunkSize];
+        int filled = json.readNBytes(buffer, 0, buffer.length);
+        int start = skipWhitespace(buffer, 0, filled);
+
+        Writer xmlWriter = new BufferedWriter(new OutputStreamWriter(xml, StandardCharsets.UTF_8));
+        JsonToXmlStreamer streamer = new JsonToXmlStreamer(xmlWriter, options);
+
+        if (start == filled || buffer[start] != '[') {
+            // Not an array: put back what was read and convert it in one piece
+            InputStream whole = new SequenceInputStream(new ByteArrayInputStream(buffer, 0, filled), json);
+            try (JsonParser parser = factory.createParser(whole)) {
+                parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+                streamer.convert(parser, rootName);
+            }
+            return;
+        }
+
+        streamer.writeStart(rootName);
+        xmlWriter.flush();
+        try (ParallelRecordWriter records = new ParallelRecordWriter(executor, xml, maxInFlight)) {
+            splitArray(json, buffer, start + 1, filled, chunkSize, records);
+            records.finish();
+        }
+        streamer.writeEnd(rootName);
+    }
+
+    /**
+     * Scans the items of the top-level array, whose opening bracket has been consumed,
+     * and submits them in chunks of at least the chunk size
+     */
+    private void splitArray(InputStream json, byte[] buffer, int start, int filled, int chunkSize,
+                            ParallelRecordWriter records) throws IOException {
+        // The opening bracket of each nesting level, the top-level array's first
+        byte[] open = new byte[16];
+        open[0] = '[';
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        long line = 1 + countLines(buffer, 0, start);
+        long chunkLine = line;
+        int position = start;
+
+        while (true) {
+            if (position == filled) {
+                // Keep the current chunk and read more after it, growing the buffer if needed
+                filled -= start;
+                System.arraycopy(buffer, start, buffer, 0, filled);
+                position = filled;
+                start = 0;
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int n = json.readNBytes(buffer, filled, buffer.length - filled);
+                if (n == 0) {
+                    throw parseError("Unexpected end of input within the top-level array", line);
+                }
+                filled += n;
+            }
+
+            byte b = buffer[position];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                } else {
+                    // Skip ahead over plain string content, which has no line feeds
+                    while (++position < filled && buffer[position] != '"' && buffer[position] != '\\') {
+                    }
+                    continue;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '[' || b == '{') {
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
+                }
+                open[depth++] = b;
+            } else if (b == ']' || b == '}') {
+                byte expected = open[--depth] == '[' ? (byte) ']' : (byte) '}';
+                if (b != expected) {
+                    throw parseError("Unexpected close marker '" + (char) b + "': expected '" + (char) expected + "'",
+                            line);
+                }
+                if (depth == 0) {
+                    // As in the sequential conversion, nothing after the array is read
+                    submitChunk(records, wrapItems(buffer, start, position), chunkLine);
+                    return;
+                }
+            } else if (b == ',' && depth == 1 && position - start >= chunkSize) {
+                submitChunk(records, wrapItems(buffer, start, position), chunkLine);
+                start = position + 1;
+                chunkLine = line;
+            }
+            if (b == '\n') {
+                line++;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Submits a chunk of items for conversion to record elements
+     */
+    private void submitChunk(ParallelRecordWriter records, byte[] chunk, long firstLine) throws IOException {
+        records.submit(chunk.length, () -> JsonToXmlStreamer.convertRecords(factory, options, chunk, firstLine));
+    }
+
+    /**
+     * Copies comma-separated items into an array of their own, so that they can be parsed
+     * independently
+     */
+    private static byte[] wrapItems(byte[] buffer, int start, int end) {
+        byte[] chunk = new byte[end - start + 2];
+        chunk[0] = '[';
+        System.arraycopy(buffer, start, chunk, 1, end - start);
+        chunk[chunk.length - 1] = ']';
+        return chunk;
+    }
+
+    private static int skipWhitespace(byte[] buffer, int position, int filled) {
+        while (position < filled && (buffer[position] == ' ' || buffer[position] == '\n'
+                || buffer[position] == '\r' || buffer[position] == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int countLines(byte[] buffer, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static JsonParseException parseError(String message, long line) {
+        return new JsonParseException(null, message + " (line " + line + ")");
+    }
+}
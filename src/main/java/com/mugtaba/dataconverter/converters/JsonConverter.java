@@ -0,0 +1,70 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import main.java.com.mugtaba.dataconverter.spi.Converter;
+import main.java.com.mugtaba.dataconverter.spi.EventStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The JSON format: a single document.
+ * <p>
+ * Untyped events, read from XML, have their types corrected, or declared by the type map
+ * of the options, as by
+ * {@link DynamicConverter#xmlToJson(InputStream, OutputStream, ConversionOptions)}, or are
+ * split into an array of records if the options say so. A sequence of records is written
+ * as a top-level array, and any other document is copied token by token.
+ */
+public class JsonConverter implements Converter {
+
+    @Override
+    public String getFormat() {
+        return "json";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of(".json");
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/json";
+    }
+
+    @Override
+    public EventStream read(InputStream input, ConversionOptions options) throws IOException {
+        JsonParser parser = DynamicConverter.jsonFactory().createParser(input);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return new EventStream(parser, false, false);
+    }
+
+    @Override
+    public void write(EventStream events, OutputStream output, String rootName, ConversionOptions options)
+            throws IOException {
+        JsonParser parser = events.getParser();
+        JsonGenerator json = DynamicConverter.jsonWriter(options).createGenerator(output, JsonEncoding.UTF8);
+        if (events.isTextOnly()) {
+            DynamicConverter.xmlToJson(parser, json, options, false);
+            return;
+        }
+
+        try (json) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (events.isRecords()) {
+                json.writeStartArray();
+                while (parser.nextToken() != null) {
+                    json.copyCurrentStructure(parser);
+                }
+                json.writeEndArray();
+            } else if (parser.nextToken() != null) {
+                json.copyCurrentStructure(parser);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Token-driven JSON to XML conversion.
+ * <p>
+ * Reads JSON tokens from a {@link JsonParser} and writes the corresponding XML
+ * straight to a {@link Writer}, so no {@code JsonNode} tree or output buffer of
+ * the whole document is ever held in memory. Memory use is bounded by the nesting
+ * depth of the input rather than by its size.
+ * <p>
+ * Output is either indented, one element per line, or compact with no whitespace
+ * between elements at all, as selected by {@link ConversionOptions#isPretty()}.
+ */
+final class JsonToXmlStreamer {
+
+    /** Shared run of spaces covering the indentation of typical documents. */
+    private static final char[] SHARED_INDENT = " ".repeat(128).toCharArray();
+
+    private final Writer xml;
+    private final boolean pretty;
+    private final int indentWidth;
+    private final String recordName;
+    private char[] indentation = SHARED_INDENT;
+
+    JsonToXmlStreamer(Writer xml, ConversionOptions options) {
+        this.xml = xml;
+        this.pretty = options.isPretty();
+        this.indentWidth = options.getIndentWidth();
+        this.recordName = options.getRecordName();
+    }
+
+    /**
+     * Converts the JSON document read from the parser into an XML document
+     * with the specified root element name.
+     * <p>
+     * The fields of a top-level object become the children of the root element.
+     * Any other top-level value is written as record elements, named by
+     * {@link ConversionOptions#getRecordName()}: one per item of an array, or a
+     * single one for a scalar.
+     *
+     * @param parser the parser positioned before the first token of the document
+     * @param rootName the name of the root element
+     * @throws IOException if there is an error reading the JSON or writing the XML
+     */
+    void convert(JsonParser parser, String rootName) throws IOException {
+        writeStart(rootName);
+
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            buildXmlContent(parser, 1);
+        } else if (token != null) {
+            writeRecord(parser);
+        }
+
+        writeEnd(rootName);
+    }
+
+    /**
+     * Writes the XML declaration and the start tag of the root element.
+     *
+     * @param rootName the name of the root element
+     * @throws IOException if there is an error writing the XML
+     */
+    void writeStart(String rootName) throws IOException {
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        newLine();
+        xml.write("<");
+        xml.write(rootName);
+        xml.write(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">");
+        newLine();
+    }
+
+    /**
+     * Writes the end tag of the root element and flushes the writer.
+     *
+     * @param rootName the name of the root element
+     * @throws IOException if there is an error writing the XML
+     */
+    void writeEnd(String rootName) throws IOException {
+        xml.write("</");
+        xml.write(rootName);
+        xml.write(">");
+        xml.flush();
+    }
+
+    /**
+     * Writes a top-level JSON value as a record element directly under the root,
+     * named by {@link ConversionOptions#getRecordName()}. An array yields one record
+     * element per item, like an array-valued field.
+     *
+     * @param parser the parser positioned on the first token of the value
+     * @throws IOException if there is an error reading the JSON or writing the XML
+     */
+    void writeRecord(JsonParser parser) throws IOException {
+        writeField(parser, recordName, parser.currentToken(), 1);
+    }
+
+    /**
+     * Converts a chunk of JSON values to the UTF-8 encoded record elements they produce,
+     * as {@link #writeRecord} writes them, for stitching between the root tags.
+     *
+     * @param factory the factory creating the parser of the chunk
+     * @param options the output options
+     * @param chunk the JSON values to convert
+     * @param firstLine the line number of the start of the chunk in the input, for errors
+     * @return the record elements
+     * @throws IOException if the chunk is not valid JSON
+     */
+    static ByteArrayOutputStream convertRecords(JsonFactory factory, ConversionOptions options,
+                                                byte[] chunk, long firstLine) throws IOException {
+        ByteArrayOutputStream fragment = new ByteArrayOutputStream(chunk.length + chunk.length / 2);
+        Writer fragmentWriter = new BufferedWriter(new OutputStreamWriter(fragment, StandardCharsets.UTF_8));
+        JsonToXmlStreamer streamer = new JsonToXmlStreamer(fragmentWriter, options);
+
+        try (JsonParser parser = factory.createParser(chunk)) {
+            while (parser.nextToken() != null) {
+                streamer.writeRecord(parser);
+            }
+            fragmentWriter.flush();
+        } catch (JsonProcessingException e) {
+            long line = firstLine + e.getLocation().getLineNr() - 1;
+            throw new IOException("Invalid JSON on line " + line + ": " + e.getOriginalMessage(), e);
+        }
+        return fragment;
+    }
+
+    /**
+     * Writes the fields of the current JSON object as XML elements.
+     * Expects the parser to be positioned on {@code START_OBJECT} and leaves it
+     * on the matching {@code END_OBJECT}.
+     *
+     * @param parser the JSON parser
+     * @param indent the current indentation level
+     */
+    private void buildXmlContent(JsonParser parser, int indent) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            writeField(parser, key, parser.nextToken(), indent);
+        }
+    }
+
+    /**
+     * Writes the elements for a field value: one element, or one per item of an array.
+     *
+     * @param parser the JSON parser
+     * @param key the element name
+     * @param value the current token
+     * @param indent the current indentation level
+     */
+    private void writeField(JsonParser parser, String key, JsonToken value, int indent) throws IOException {
+        if (value == JsonToken.START_ARRAY) {
+            // Handle arrays - each element gets the same tag name
+            JsonToken item;
+            while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                addIndent(indent);
+                writeElement(parser, key, item, indent);
+            }
+        } else {
+            addIndent(indent);
+            writeElement(parser, key, value, indent);
+        }
+    }
+
+    /**
+     * Writes a single element for the value the parser is positioned on.
+     *
+     * @param parser the JSON parser
+     * @param key the element name
+     * @param value the current token
+     * @param indent the current indentation level
+     */
+    private void writeElement(JsonParser parser, String key, JsonToken value, int indent) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            // Create a null element with xsi:nil attribute
+            xml.write("<");
+            xml.write(key);
+            xml.write(" xsi:nil=\"true\"/>");
+            newLine();
+        } else if (value == JsonToken.START_OBJECT) {
+            xml.write("<");
+            xml.write(key);
+            xml.write(">");
+            newLine();
+            buildXmlContent(parser, indent + 1);
+            addIndent(indent);
+            writeEndTag(key);
+        } else {
+            String text;
+            if (value == JsonToken.START_ARRAY) {
+                // Nested arrays have no textual representation
+                parser.skipChildren();
+                text = "";
+            } else {
+                text = parser.getText();
+            }
+            xml.write("<");
+            xml.write(key);
+            xml.write(">");
+            DynamicConverter.escapeXml(text, xml);
+            writeEndTag(key);
+        }
+    }
+
+    private void writeEndTag(String key) throws IOException {
+        xml.write("</");
+        xml.write(key);
+        xml.write(">");
+        newLine();
+    }
+
+    /**
+     * Adds proper indentation to XML, copied from a cached run of spaces that
+     * grows on demand for deeply nested documents
+     *
+     * @param indent the current indentation level
+     */
+    private void addIndent(int indent) throws IOException {
+        int width = indent * indentWidth;
+        if (!pretty || width <= 0) {
+            return;
+        }
+        if (width > indentation.length) {
+            indentation = " ".repeat(Math.max(width, indentation.length * 2)).toCharArray();
+        }
+        xml.write(indentation, 0, width);
+    }
+
+    /**
+     * Ends the current line, unless writing compact XML
+     */
+    private void newLine() throws IOException {
+        if (pretty) {
+            xml.write('\n');
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import main.java.com.mugtaba.dataconverter.spi.Converter;
+import main.java.com.mugtaba.dataconverter.spi.EventStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The newline-delimited JSON format (NDJSON, JSON Lines): a sequence of records, one
+ * compact JSON value per line.
+ * <p>
+ * Untyped events, read from XML, are written record by record as by
+ * {@link DynamicConverter#xmlToNdjson(InputStream, OutputStream)}, with the types
+ * declared by the type map of the options. The items of a
+ * top-level array become records, and any other single document becomes one record.
+ */
+public class NdjsonConverter implements Converter {
+
+    @Override
+    public String getFormat() {
+        return "ndjson";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of(".ndjson", ".jsonl");
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/x-ndjson";
+    }
+
+    @Override
+    public EventStream read(InputStream input, ConversionOptions options) throws IOException {
+        JsonParser parser = DynamicConverter.jsonFactory().createParser(input);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return new EventStream(parser, true, false);
+    }
+
+    @Override
+    public void write(EventStream events, OutputStream output, String rootName, ConversionOptions options)
+            throws IOException {
+        JsonParser parser = events.getParser();
+        JsonGenerator json = DynamicConverter.jsonWriter(DynamicConverter.NDJSON_OPTIONS)
+                .createGenerator(output, JsonEncoding.UTF8);
+        if (events.isTextOnly()) {
+            DynamicConverter.xmlToJson(parser, json,
+                    DynamicConverter.NDJSON_OPTIONS.withTypes(options.getTypes()), true);
+            return;
+        }
+
+        try (json) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            JsonToken token = parser.nextToken();
+            boolean items = !events.isRecords() && token == JsonToken.START_ARRAY;
+            if (items) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(items && token == JsonToken.END_ARRAY)) {
+                json.copyCurrentStructure(parser);
+                json.writeRaw('\n');
+                token = parser.nextToken();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Converts newline-delimited JSON (NDJSON, JSON Lines) to a single XML document in which
+ * every record becomes an element directly under the root.
+ * <p>
+ * Sequentially, records are streamed one at a time from a single parser, so memory use
+ * does not grow with the number of records. In parallel, the input is cut into chunks
+ * of whole lines that a {@link ParallelRecordWriter} converts on an executor, while the
+ * calling thread only looks for line ends. Each record must then be on a single line,
+ * as NDJSON requires.
+ */
+final class NdjsonToXmlStreamer {
+
+    private final JsonFactory factory;
+    private final ConversionOptions options;
+
+    NdjsonToXmlStreamer(JsonFactory factory, ConversionOptions options) {
+        this.factory = factory;
+        this.options = options;
+    }
+
+    /**
+     * Converts the records read from the parser, one after another.
+     *
+     * @param parser the parser positioned before the first record
+     * @param xml the writer to write the XML to
+     * @param rootName the name of the root element
+     * @throws IOException if there is an error reading the JSON or writing the XML
+     */
+    void convert(JsonParser parser, Writer xml, String rootName) throws IOException {
+        JsonToXmlStreamer streamer = new JsonToXmlStreamer(xml, options);
+        streamer.writeStart(rootName);
+        while (parser.nextToken() != null) {
+            streamer.writeRecord(parser);
+        }
+        streamer.writeEnd(rootName);
+    }
+
+    /**
+     * Converts the input in chunks of whole lines on the executor, writing the results
+     * in input order.
+     *
+     * @param json the stream to read UTF-8 encoded NDJSON from
+     * @param xml the stream to write the UTF-8 encoded XML to
+     * @param rootName the name of the root element
+     * @param executor the executor converting chunks
+     * @param chunkSize the approximate number of bytes per chunk
+     * @param maxInFlight the maximum number of chunks queued, running or awaiting output
+     * @throws IOException if there is an error reading the JSON or writing the XML
+     */
+    void convert(InputStream json, OutputStream xml, String rootName,
+                 ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        Writer xmlWriter = new BufferedWriter(new OutputStreamWriter(xml, StandardCharsets.UTF_8));
+        JsonToXmlStreamer streamer = new JsonToXmlStreamer(xmlWriter, options);
+        streamer.writeStart(rootName);
+        xmlWriter.flush();
+
+        try (ParallelRecordWriter records = new ParallelRecordWriter(executor, xml, maxInFlight)) {
+            long lineNumber = 1;
+            byte[] buffer = new byte[chunkSize];
+            int filled = 0;
+            int n;
+            while ((n = json.readNBytes(buffer, filled, buffer.length - filled)) > 0 || filled > 0) {
+                filled += n;
+                boolean endOfInput = filled < buffer.length;
+
+                // Cut after the last complete line; the rest starts the next chunk
+                int end = endOfInput ? filled : lastLineEnd(buffer, filled);
+                if (end == 0) {
+                    // A single line longer than the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+
+                byte[] chunk = Arrays.copyOf(buffer, end);
+                long firstLine = lineNumber;
+                records.submit(chunk.length, () -> JsonToXmlStreamer.convertRecords(factory, options, chunk, firstLine));
+                lineNumber += countLines(chunk);
+
+                filled -= end;
+                System.arraycopy(buffer, end, buffer, 0, filled);
+                if (endOfInput) {
+                    break;
+                }
+            }
+            records.finish();
+        }
+
+        streamer.writeEnd(rootName);
+    }
+
+    /**
+     * Returns the position just after the last line feed in the buffer, or 0 if there is none
+     */
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Counts the line feeds in the chunk
+     */
+    private static int countLines(byte[] chunk) {
+        int lines = 0;
+        for (byte b : chunk) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,133 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Converts chunks of records on an executor and writes the converted fragments to the
+ * output in the order the chunks were submitted.
+ * <p>
+ * Each chunk is converted into the exact bytes a sequential conversion writes for its
+ * records, such as the record elements {@link JsonToXmlStreamer#convertRecords} produces,
+ * so stitching the fragments together gives the same document as a sequential conversion.
+ * At most a given number of chunks are queued, running or awaiting output; submitting
+ * beyond that blocks on the oldest chunk, which keeps memory bounded.
+ */
+final class ParallelRecordWriter implements AutoCloseable {
+
+    /**
+     * Conversion of one chunk of records into the bytes written for it.
+     */
+    @FunctionalInterface
+    interface ChunkConversion {
+        ByteArrayOutputStream convert() throws IOException;
+    }
+
+    private final ExecutorService executor;
+    private final OutputStream output;
+    private final int maxInFlight;
+    private final Deque<Future<ByteArrayOutputStream>> pending = new ArrayDeque<>();
+    private long submitted;
+
+    /**
+     * Creates a writer of record fragments.
+     *
+     * @param executor the executor converting chunks
+     * @param output the stream to write the fragments to
+     * @param maxInFlight the maximum number of chunks queued, running or awaiting output
+     */
+    ParallelRecordWriter(ExecutorService executor, OutputStream output, int maxInFlight) {
+        this.executor = executor;
+        this.output = output;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Submits a chunk for conversion, first writing the oldest fragment if the limit of
+     * chunks in flight has been reached.
+     *
+     * @param inputSize the size of the chunk, in bytes or characters, for Flight Recorder events
+     * @param conversion the conversion of the chunk
+     * @throws IOException if an earlier chunk failed or its fragment cannot be written
+     */
+    void submit(long inputSize, ChunkConversion conversion) throws IOException {
+        if (pending.size() >= maxInFlight) {
+            await(pending.removeFirst()).writeTo(output);
+        }
+        long chunk = submitted++;
+        pending.addLast(executor.submit(() -> run(conversion, chunk, inputSize)));
+    }
+
+    /**
+     * Waits for all submitted chunks and writes their fragments.
+     *
+     * @throws IOException if a chunk failed or a fragment cannot be written
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            await(pending.removeFirst()).writeTo(output);
+        }
+    }
+
+    /**
+     * Cancels the chunks that were not written, after a failure.
+     */
+    @Override
+    public void close() {
+        for (Future<ByteArrayOutputStream> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Runs a conversion on a worker thread
+     */
+    private static ByteArrayOutputStream run(ChunkConversion conversion, long chunk, long inputSize) {
+        RecordChunkEvent event = new RecordChunkEvent();
+        event.begin();
+        try {
+            ByteArrayOutputStream fragment = conversion.convert();
+            event.end();
+            if (event.shouldCommit()) {
+                event.chunk = chunk;
+                event.inputSize = inputSize;
+                event.outputSize = fragment.size();
+                event.commit();
+            }
+            return fragment;
+        } catch (IOException e) {
+            // Executors may wrap checked exceptions; an unchecked one is passed on as is
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for a chunk and returns its fragment, rethrowing its failure
+     */
+    private static ByteArrayOutputStream await(Future<ByteArrayOutputStream> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while converting records");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
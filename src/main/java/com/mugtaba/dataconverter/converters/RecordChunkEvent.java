@@ -0,0 +1,33 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the conversion of one chunk of records by a
+ * {@link ParallelRecordWriter}, on the worker thread that converted it.
+ */
+@Name("dataconverter.RecordChunk")
+@Label("Record Chunk Conversion")
+@Category("Data Converter")
+@Description("Parsing and conversion of one chunk of records converted in parallel")
+@StackTrace(false)
+final class RecordChunkEvent extends Event {
+
+    @Label("Chunk")
+    @Description("Position of the chunk in the input, starting at 0")
+    long chunk;
+
+    @Label("Input Size")
+    @Description("Bytes of JSON or characters of XML in the chunk")
+    long inputSize;
+
+    @Label("Output Size")
+    @DataAmount
+    long outputSize;
+}
@@ -0,0 +1,185 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+/**
+ * Single-pass classifier for text values read from XML.
+ * <p>
+ * Decides whether a text is an integer, a long, a decimal, a boolean, the literal
+ * "null" or a plain string, and computes the numeric value in the same pass,
+ * without regular expressions, intermediate objects or exceptions. The accepted
+ * syntax is the one {@code correctTypes} has always used: {@code -?\d+} for integers
+ * (falling back to string on long overflow), {@code -?\d*\.\d+} for decimals, and
+ * case-insensitive {@code true}, {@code false} and {@code null}.
+ * <p>
+ * An instance keeps the value of the last scan, so it must not be shared between threads.
+ */
+final class ScalarScanner {
+
+    /** The JSON type a text value maps to. */
+    enum Type {
+        STRING, INT, LONG, DOUBLE, TRUE, FALSE, NULL
+    }
+
+    /** Largest mantissa that a double represents exactly (2^53). */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Powers of ten that a double represents exactly. */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private long longValue;
+    private double doubleValue;
+
+    /**
+     * Classifies a text value. For {@link Type#INT} and {@link Type#LONG} the value is
+     * then available from {@link #longValue()}, for {@link Type#DOUBLE} from
+     * {@link #doubleValue()}.
+     *
+     * @param text the text to classify
+     * @return the type of the value
+     */
+    Type scan(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return Type.STRING;
+        }
+
+        char first = text.charAt(0);
+        if (first == '-' || first == '.' || isDigit(first)) {
+            return scanNumber(text, length);
+        }
+
+        // Try to parse as boolean or null
+        if (length == 4) {
+            if (text.equalsIgnoreCase("true")) {
+                return Type.TRUE;
+            }
+            if (text.equalsIgnoreCase("null")) {
+                return Type.NULL;
+            }
+        } else if (length == 5 && text.equalsIgnoreCase("false")) {
+            return Type.FALSE;
+        }
+        return Type.STRING;
+    }
+
+    long longValue() {
+        return longValue;
+    }
+
+    double doubleValue() {
+        return doubleValue;
+    }
+
+    private Type scanNumber(String text, int length) {
+        boolean negative = text.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+
+        // Integer part, accumulated negatively so that Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long accumulator = 0;
+        boolean overflow = false;
+        int integerDigits = 0;
+
+        while (i < length && isDigit(text.charAt(i))) {
+            int digit = text.charAt(i) - '0';
+            if (accumulator < multiplyLimit || accumulator * 10 < limit + digit) {
+                overflow = true;
+            } else {
+                accumulator = accumulator * 10 - digit;
+            }
+            integerDigits++;
+            i++;
+        }
+
+        if (i == length) {
+            if (integerDigits == 0 || overflow) {
+                return Type.STRING;
+            }
+            longValue = negative ? accumulator : -accumulator;
+            return longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE ? Type.INT : Type.LONG;
+        }
+
+        // Decimal: optional integer digits, a dot, then at least one digit
+        if (text.charAt(i) != '.' || i + 1 == length) {
+            return Type.STRING;
+        }
+        int dot = i++;
+        // -2^63 has no positive counterpart, and is beyond exact anyway
+        long mantissa = overflow || accumulator == Long.MIN_VALUE ? MAX_EXACT_MANTISSA : -accumulator;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return Type.STRING;
+            }
+            if (mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            i++;
+        }
+
+        int fractionDigits = length - dot - 1;
+        if (mantissa < MAX_EXACT_MANTISSA && fractionDigits < EXACT_POWERS_OF_TEN.length) {
+            // Exact mantissa divided by an exact power of ten is correctly rounded
+            double value = mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+            doubleValue = negative ? -value : value;
+        } else {
+            doubleValue = Double.parseDouble(text);
+        }
+        return Type.DOUBLE;
+    }
+
+    /**
+     * Checks whether a text follows the JSON number syntax, so that it can be written
+     * to JSON as is: an optional minus, an integer part without leading zeros, then an
+     * optional fraction and exponent.
+     *
+     * @param text the text to check
+     * @return true if the text is a JSON number
+     */
+    static boolean isJsonNumber(String text) {
+        int length = text.length();
+        int i = 0;
+        if (i < length && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i == length || !isDigit(text.charAt(i))) {
+            return false;
+        }
+        if (text.charAt(i++) != '0') {
+            i = skipDigits(text, i);
+        }
+        if (i < length && text.charAt(i) == '.') {
+            int fraction = ++i;
+            i = skipDigits(text, i);
+            if (i == fraction) {
+                return false;
+            }
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int exponent = i;
+            i = skipDigits(text, i);
+            if (i == exponent) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static int skipDigits(String text, int i) {
+        while (i < text.length() && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,41 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+
+/**
+ * Parser that counts the tokens read through it, for conversion statistics.
+ * <p>
+ * Tokens skipped over with {@link #skipChildren()} are not counted.
+ */
+final class TokenCountingParser extends JsonParserDelegate {
+
+    private long tokens;
+
+    TokenCountingParser(JsonParser parser) {
+        super(parser);
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+        if (token != null) {
+            tokens++;
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        // As JsonParser does it, so both tokens are counted
+        JsonToken token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    long getTokens() {
+        return tokens;
+    }
+}
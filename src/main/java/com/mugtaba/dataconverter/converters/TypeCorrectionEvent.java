@@ -0,0 +1,29 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the XML to JSON conversion of one document, or of one
+ * batch of its records, by an {@link XmlToJsonStreamer}, which corrects types value by
+ * value as it streams; or a call of {@link DynamicConverter#correctTypes} on a tree.
+ */
+@Name("dataconverter.TypeCorrection")
+@Label("Type Correction")
+@Category("Data Converter")
+@Description("XML to JSON conversion of a document or batch of records, with the types of its values")
+@StackTrace(false)
+final class TypeCorrectionEvent extends Event {
+
+    @Label("Guessed Values")
+    @Description("Text values whose type was guessed from the text")
+    long guessedValues;
+
+    @Label("Declared Values")
+    @Description("Text values converted to the type declared for their path by the type map")
+    long declaredValues;
+}
@@ -0,0 +1,363 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * User-supplied JSON types of the values found at given paths of XML documents, applied
+ * by the XML to JSON conversion instead of guessing each type from the text.
+ * <p>
+ * A path names the fields of the JSON output below the root element, separated by
+ * slashes: {@code order/customer/zip}. Attributes are named as elements are, the text of
+ * an element that also has attributes or children is the empty name ({@code note/}), and
+ * the items of an array share the path of the array. A path declared as an array can
+ * also declare the type of its items, as in {@code array<string>}. A {@code *} segment
+ * matches any one name. Where several patterns match a path, the one with the fewest
+ * wildcards wins, then the one listed first.
+ * <p>
+ * The patterns are compiled into a trie whose wildcard branches are merged into the
+ * literal ones, so following a path costs one hash lookup per field name, however many
+ * patterns there are, and stops altogether below fields no pattern reaches.
+ */
+public final class TypeMap {
+
+    /** A type that values at a path are converted to. */
+    public enum Type {
+        /** The text as is, never a number, boolean or null. */
+        STRING,
+        /** An integer within 32 bits. */
+        INT,
+        /** An integer within 64 bits. */
+        LONG,
+        /** A number written with exactly the digits of the text, without rounding. */
+        DECIMAL,
+        /** {@code true} or {@code false}, also written as {@code 1} or {@code 0}. */
+        BOOLEAN,
+        /** An array, even when the element occurs only once; items have their item type, or are guessed. */
+        ARRAY
+    }
+
+    /** The map without any paths, under which every type is guessed from its text. */
+    public static final TypeMap NONE = new TypeMap(new LinkedHashMap<>(), new LinkedHashMap<>());
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+
+    private static final String WILDCARD = "*";
+
+    private final Map<String, Type> patterns;
+    private final Map<String, Type> itemTypes;
+    private final Node root;
+
+    /**
+     * A state of the compiled trie: the type of the values at the paths leading to it,
+     * and the states of the paths one field deeper.
+     */
+    static final class Node {
+
+        private final Type type;
+        private final Type itemType;
+        private final Map<String, Node> children = new HashMap<>();
+
+        /** The state of any field name not among the children, or null if none is typed. */
+        private Node others;
+
+        private Node(Type type, Type itemType) {
+            this.type = type;
+            this.itemType = itemType;
+        }
+
+        /**
+         * Returns the type of the values at this path.
+         *
+         * @return the type, or null if it is guessed from the text
+         */
+        Type type() {
+            return type;
+        }
+
+        /**
+         * Returns the type that text values at this path are converted to: the declared
+         * type, or the item type of an array.
+         *
+         * @return the type, never {@link Type#ARRAY}, or null if it is guessed from the text
+         */
+        Type textType() {
+            return type == Type.ARRAY ? itemType : type;
+        }
+
+        /**
+         * Returns the state of a field of the value at this path.
+         *
+         * @param name the field name
+         * @return the state, or null if neither the field nor anything below it is typed
+         */
+        Node child(String name) {
+            Node child = children.get(name);
+            return child != null ? child : others;
+        }
+    }
+
+    /**
+     * A node of the trie of patterns as written, before wildcards are merged.
+     */
+    private static final class Pattern {
+        final Map<String, Pattern> literals = new LinkedHashMap<>();
+        Pattern wildcard;
+        Type type;
+        Type itemType;
+        int wildcards;
+        int order;
+    }
+
+    private TypeMap(Map<String, Type> patterns, Map<String, Type> itemTypes) {
+        this.patterns = patterns;
+        this.itemTypes = itemTypes;
+        this.root = patterns.isEmpty() ? null : compile(patterns, itemTypes);
+    }
+
+    /**
+     * Creates a type map from path patterns, whose arrays have items of guessed types.
+     *
+     * @param patterns the type of each path pattern, in order of precedence among
+     *                 patterns with the same number of wildcards
+     * @return the type map
+     * @throws IllegalArgumentException if a pattern is empty or has no type
+     */
+    public static TypeMap of(Map<String, Type> patterns) {
+        return of(patterns, Map.of());
+    }
+
+    /**
+     * Creates a type map from path patterns and the item types of the patterns declared
+     * as arrays.
+     *
+     * @param patterns  the type of each path pattern, in order of precedence among
+     *                  patterns with the same number of wildcards
+     * @param itemTypes the type of the items of patterns declared as {@link Type#ARRAY};
+     *                  the items of other arrays are guessed
+     * @return the type map
+     * @throws IllegalArgumentException if a pattern is empty or has no type, or an item
+     *                                  type is an array or belongs to a pattern that isn't one
+     */
+    public static TypeMap of(Map<String, Type> patterns, Map<String, Type> itemTypes) {
+        Map<String, Type> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Type> pattern : patterns.entrySet()) {
+            String path = pattern.getKey();
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Type map path cannot be empty");
+            }
+            if (pattern.getValue() == null) {
+                throw new IllegalArgumentException("Type map path has no type: " + path);
+            }
+            copy.put(path, pattern.getValue());
+        }
+        Map<String, Type> itemCopy = new LinkedHashMap<>();
+        for (Map.Entry<String, Type> item : itemTypes.entrySet()) {
+            String path = item.getKey();
+            if (copy.get(path) != Type.ARRAY) {
+                throw new IllegalArgumentException("Type map path has an item type but isn't an array: " + path);
+            }
+            if (item.getValue() == null || item.getValue() == Type.ARRAY) {
+                throw new IllegalArgumentException("Type map item type must be a value type: " + path);
+            }
+            itemCopy.put(path, item.getValue());
+        }
+        return copy.isEmpty() ? NONE : new TypeMap(copy, itemCopy);
+    }
+
+    /**
+     * Loads a type map from a JSON file holding one object, whose field names are path
+     * patterns and whose values are type names, such as
+     * {@code {"order/id": "long", "order/zip": "array<string>"}}.
+     *
+     * @param file the path to the type map file
+     * @return the type map
+     * @throws IOException if the file cannot be read or is not a valid type map, such as
+     *                     one listing a pattern twice
+     */
+    public static TypeMap load(Path file) throws IOException {
+        JsonNode root;
+        try {
+            root = mapper.readTree(file.toFile());
+        } catch (JsonProcessingException e) {
+            throw new IOException("Invalid type map: " + file + ". " + e.getOriginalMessage(), e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IOException("Invalid type map: " + file + ". Expected an object of paths and types");
+        }
+
+        Map<String, Type> patterns = new LinkedHashMap<>();
+        Map<String, Type> itemTypes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getValue().asText().toUpperCase(Locale.ROOT);
+            try {
+                if (name.startsWith("ARRAY<") && name.endsWith(">")) {
+                    Type itemType = Type.valueOf(name.substring("ARRAY<".length(), name.length() - 1).trim());
+                    if (itemType == Type.ARRAY) {
+                        throw new IllegalArgumentException("Arrays of arrays cannot be declared");
+                    }
+                    patterns.put(field.getKey(), Type.ARRAY);
+                    itemTypes.put(field.getKey(), itemType);
+                } else {
+                    patterns.put(field.getKey(), Type.valueOf(name));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid type map: " + file + ". Type of '" + field.getKey()
+                        + "' must be one of string, int, long, decimal, boolean, array, or array<type> of one"
+                        + " of the others, got: " + field.getValue().asText(), e);
+            }
+        }
+        try {
+            return of(patterns, itemTypes);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid type map: " + file + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns whether the map has no paths, so that every type is guessed.
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the type of each path pattern, in the order they were given.
+     *
+     * @return the unmodifiable patterns
+     */
+    public Map<String, Type> getPatterns() {
+        return Collections.unmodifiableMap(patterns);
+    }
+
+    /**
+     * Returns the type of the items of each path pattern declared as an array with an
+     * item type, in the order they were given.
+     *
+     * @return the unmodifiable item types
+     */
+    public Map<String, Type> getItemTypes() {
+        return Collections.unmodifiableMap(itemTypes);
+    }
+
+    /**
+     * Returns the state of the root element, whose fields are the first segments of
+     * the paths.
+     *
+     * @return the root state, or null if the map is empty
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Returns the patterns and their types, which differ between maps that can type
+     * a value differently.
+     *
+     * @return the patterns as text
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        patterns.forEach((path, type) -> {
+            text.append(text.length() > 1 ? ", " : "")
+                    .append(path).append('=').append(type.name().toLowerCase(Locale.ROOT));
+            Type itemType = itemTypes.get(path);
+            if (itemType != null) {
+                text.append('<').append(itemType.name().toLowerCase(Locale.ROOT)).append('>');
+            }
+        });
+        return text.append('}').toString();
+    }
+
+    /**
+     * Builds the trie of the patterns, then merges it into one state per set of
+     * pattern nodes a path can reach
+     */
+    private static Node compile(Map<String, Type> patterns, Map<String, Type> itemTypes) {
+        Pattern trie = new Pattern();
+        int order = 0;
+        for (Map.Entry<String, Type> entry : patterns.entrySet()) {
+            Pattern node = trie;
+            int wildcards = 0;
+            for (String segment : entry.getKey().split("/", -1)) {
+                if (segment.equals(WILDCARD)) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Pattern();
+                    }
+                    node = node.wildcard;
+                    wildcards++;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, s -> new Pattern());
+                }
+            }
+            node.type = entry.getValue();
+            node.itemType = itemTypes.get(entry.getKey());
+            node.wildcards = wildcards;
+            node.order = order++;
+        }
+        return merge(Set.of(trie), new HashMap<>());
+    }
+
+    /**
+     * Returns the state of a set of pattern nodes matching the same paths, whose children
+     * follow every literal and wildcard branch of the set
+     */
+    private static Node merge(Set<Pattern> matching, Map<Set<Pattern>, Node> merged) {
+        Node node = merged.get(matching);
+        if (node != null) {
+            return node;
+        }
+
+        Pattern best = null;
+        List<Pattern> wildcards = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (Pattern pattern : matching) {
+            if (pattern.type != null && (best == null || pattern.wildcards < best.wildcards
+                    || pattern.wildcards == best.wildcards && pattern.order < best.order)) {
+                best = pattern;
+            }
+            if (pattern.wildcard != null) {
+                wildcards.add(pattern.wildcard);
+            }
+            names.addAll(pattern.literals.keySet());
+        }
+
+        node = new Node(best == null ? null : best.type, best == null ? null : best.itemType);
+        merged.put(matching, node);
+        for (String name : names) {
+            Set<Pattern> children = new LinkedHashSet<>(wildcards);
+            for (Pattern pattern : matching) {
+                Pattern child = pattern.literals.get(name);
+                if (child != null) {
+                    children.add(child);
+                }
+            }
+            node.children.put(name, merge(children, merged));
+        }
+        if (!wildcards.isEmpty()) {
+            node.others = merge(new LinkedHashSet<>(wildcards), merged);
+        }
+        return node;
+    }
+}
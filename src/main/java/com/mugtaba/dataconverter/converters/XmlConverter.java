@@ -0,0 +1,63 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import main.java.com.mugtaba.dataconverter.spi.Converter;
+import main.java.com.mugtaba.dataconverter.spi.EventStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The XML format, read as untyped events and written as by {@link JsonToXmlStreamer}.
+ * <p>
+ * A single document becomes the content of the root element; each record of a sequence
+ * becomes an element named by {@link ConversionOptions#getRecordName()} under the root.
+ */
+public class XmlConverter implements Converter {
+
+    @Override
+    public String getFormat() {
+        return "xml";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of(".xml");
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/xml";
+    }
+
+    @Override
+    public EventStream read(InputStream input, ConversionOptions options) throws IOException {
+        JsonParser parser = DynamicConverter.xmlFactory().createParser(input);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return new EventStream(parser, false, true);
+    }
+
+    @Override
+    public void write(EventStream events, OutputStream output, String rootName, ConversionOptions options)
+            throws IOException {
+        Writer xml = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (!events.isRecords()) {
+            DynamicConverter.jsonToXml(events.getParser(), xml, rootName, options);
+            return;
+        }
+
+        JsonParser parser = events.getParser();
+        JsonToXmlStreamer streamer = new JsonToXmlStreamer(xml, options);
+        streamer.writeStart(rootName);
+        while (parser.nextToken() != null) {
+            streamer.writeRecord(parser);
+        }
+        streamer.writeEnd(rootName);
+    }
+}
@@ -0,0 +1,304 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+import com.fasterxml.jackson.dataformat.xml.deser.FromXmlParser;
+import org.codehaus.stax2.XMLStreamReader2;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Record-by-record XML to JSON conversion, for documents whose root element holds a
+ * long sequence of records.
+ * <p>
+ * Each child element of the root becomes one JSON value, converted exactly as
+ * {@link XmlToJsonStreamer} converts it as a field of the whole document, and the values
+ * are written as the items of a JSON array or as newline-delimited JSON. Attributes and
+ * text directly under the root are not records and are left out.
+ * <p>
+ * In parallel, the calling thread only finds where each record starts and ends, using a
+ * StAX reader that skips over the records without reporting their content, and copies
+ * batches of records as text. A {@link ParallelRecordWriter} parses and converts the
+ * batches on an executor and writes them in document order, so the output is identical
+ * to that of a sequential conversion. Since every batch is parsed on its own, the input
+ * must be UTF-8 encoded and must not have a DOCTYPE declaration.
+ */
+final class XmlRecordsToJsonStreamer {
+
+    /** Text written around and between records: as array items, or one per line. */
+    private record Layout(String open, String separator, String close, String empty) {
+    }
+
+    private static final Layout PRETTY_ARRAY = new Layout("[ ", ", ", " ]", "[ ]");
+    private static final Layout COMPACT_ARRAY = new Layout("[", ",", "]", "[]");
+    private static final Layout LINES = new Layout("", "\n", "\n", "");
+
+    private final XmlFactory factory;
+    private final ObjectWriter writer;
+    private final Layout layout;
+    private final TypeMap types;
+
+    /**
+     * Creates a streamer writing records with a JSON writer that puts nothing between
+     * root-level values.
+     *
+     * @param factory the factory creating XML parsers
+     * @param writer the JSON writer of the records
+     * @param pretty whether array items are separated by spaces, as pretty-printed arrays are
+     * @param lines true to write one record per line instead of a JSON array
+     * @param types the declared types of values, whose paths start with the record element names
+     */
+    XmlRecordsToJsonStreamer(XmlFactory factory, ObjectWriter writer, boolean pretty, boolean lines,
+                             TypeMap types) {
+        this.factory = factory;
+        this.writer = writer;
+        this.layout = lines ? LINES : pretty ? PRETTY_ARRAY : COMPACT_ARRAY;
+        this.types = types;
+    }
+
+    /**
+     * Converts the records of the XML document read from the parser, one after another.
+     *
+     * @param parser the XML parser positioned before the first token of the document
+     * @param json the generator to write the records to
+     * @throws IOException if there is an error reading the XML or writing the JSON
+     */
+    void convert(JsonParser parser, JsonGenerator json) throws IOException {
+        int records = writeRecords(parser, json, true);
+        json.writeRaw(records == 0 ? layout.empty() : layout.close());
+        json.flush();
+    }
+
+    /**
+     * Converts the records of the UTF-8 encoded XML document read from the stream in
+     * batches on the executor, writing the results in document order.
+     *
+     * @param xml the stream to read XML from
+     * @param json the stream to write the UTF-8 encoded JSON to
+     * @param executor the executor converting batches
+     * @param chunkSize the approximate number of characters per batch
+     * @param maxInFlight the maximum number of batches queued, running or awaiting output
+     * @throws IOException if there is an error reading the XML or writing the JSON
+     */
+    void convert(InputStream xml, OutputStream json,
+                 ExecutorService executor, int chunkSize, int maxInFlight) throws IOException {
+        RecordingReader text = new RecordingReader(new InputStreamReader(xml, StandardCharsets.UTF_8));
+        boolean anyRecords;
+        try {
+            XMLStreamReader2 reader = (XMLStreamReader2) factory.getXMLInputFactory().createXMLStreamReader(text);
+            moveToRoot(reader);
+
+            // Batches are wrapped in the root element, declaring the same namespaces
+            String rootName = qualifiedName(reader.getPrefix(), reader.getLocalName());
+            StringBuilder start = new StringBuilder("<").append(rootName);
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                start.append(prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix)
+                        .append("=\"").append(DynamicConverter.escapeXml(reader.getNamespaceURI(i))).append('"');
+            }
+            String wrapperStart = start.append('>').toString();
+            String wrapperEnd = "</" + rootName + ">";
+
+            try (ParallelRecordWriter records = new ParallelRecordWriter(executor, json, maxInFlight)) {
+                long batchStart = -1;
+                long batchEnd = 0;
+                int batches = 0;
+
+                // Records are skipped whole, so the next end tag is that of the root
+                int event;
+                while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    long recordStart = reader.getLocationInfo().getStartingCharOffset();
+                    reader.skipElement();
+                    if (batchStart < 0) {
+                        text.discardBefore(recordStart);
+                        batchStart = recordStart;
+                    }
+                    batchEnd = reader.getLocationInfo().getEndingCharOffset();
+
+                    if (batchEnd - batchStart >= chunkSize) {
+                        submitBatch(records, wrapperStart + text.slice(batchStart, batchEnd) + wrapperEnd,
+                                batches++ == 0);
+                        batchStart = -1;
+                    }
+                }
+                if (batchStart >= 0) {
+                    submitBatch(records, wrapperStart + text.slice(batchStart, batchEnd) + wrapperEnd,
+                            batches++ == 0);
+                }
+                records.finish();
+                anyRecords = batches > 0;
+            }
+        } catch (XMLStreamException e) {
+            throw new JsonParseException(null, e.getMessage(), e);
+        }
+
+        json.write((anyRecords ? layout.close() : layout.empty()).getBytes(StandardCharsets.UTF_8));
+        json.flush();
+    }
+
+    /**
+     * Submits a batch of records, wrapped in a root element, for conversion
+     */
+    private void submitBatch(ParallelRecordWriter records, String batch, boolean first) throws IOException {
+        records.submit(batch.length(), () -> {
+            ByteArrayOutputStream fragment = new ByteArrayOutputStream(batch.length());
+            try (JsonParser parser = factory.createParser(batch);
+                 JsonGenerator json = writer.createGenerator(fragment, JsonEncoding.UTF8)) {
+                writeRecords(parser, json, first);
+            }
+            return fragment;
+        });
+    }
+
+    /**
+     * Writes each child element of the root as a record, preceded by the opening text
+     * of the layout if these are the first records of the document, or by a separator
+     * otherwise
+     *
+     * @return the number of records written
+     */
+    private int writeRecords(JsonParser parser, JsonGenerator json, boolean first) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return 0;
+        }
+        TypeCorrectionEvent event = new TypeCorrectionEvent();
+        event.begin();
+
+        // The parser reads the attributes of the root while its reader is still on the
+        // root start tag, and every child element only once the reader has entered it
+        XMLStreamReader2 reader = (XMLStreamReader2) xmlParser(parser).getStaxReader();
+        XmlToJsonStreamer streamer = new XmlToJsonStreamer(json, types);
+        int records = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Text directly under the root is reported as a field with an empty name
+            String name = parser.getCurrentName();
+            boolean record = reader.getDepth() > 1 && !name.isEmpty();
+            JsonToken value = parser.nextToken();
+            if (!record) {
+                parser.skipChildren();
+                continue;
+            }
+            json.writeRaw(first && records == 0 ? layout.open() : layout.separator());
+            streamer.writeRecord(parser, name, value);
+            records++;
+        }
+        streamer.commit(event);
+        return records;
+    }
+
+    /**
+     * Advances the reader to the start tag of the root element, checking that batches of
+     * the document can be parsed on their own
+     */
+    private static void moveToRoot(XMLStreamReader2 reader) throws XMLStreamException, JsonParseException {
+        String encoding = reader.getCharacterEncodingScheme();
+        if (encoding != null && !encoding.equalsIgnoreCase("UTF-8") && !encoding.equalsIgnoreCase("US-ASCII")) {
+            throw new JsonParseException(null,
+                    "Records can only be converted in parallel from UTF-8 encoded XML, got: " + encoding);
+        }
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.START_ELEMENT) {
+            if (event == XMLStreamConstants.DTD) {
+                throw new JsonParseException(null,
+                        "Records cannot be converted in parallel from XML with a DOCTYPE declaration");
+            }
+        }
+    }
+
+    /**
+     * Returns the XML parser behind any delegates wrapped around it, such as the one
+     * counting tokens for statistics
+     */
+    private static FromXmlParser xmlParser(JsonParser parser) {
+        while (parser instanceof JsonParserDelegate delegate) {
+            parser = delegate.delegate();
+        }
+        return (FromXmlParser) parser;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    /**
+     * Reader that keeps the characters it has read, from a given offset on, so that the
+     * text of records found by a parser reading through it can be copied.
+     */
+    private static final class RecordingReader extends FilterReader {
+
+        private char[] recorded = new char[64 * 1024];
+        private int length;
+
+        /** Offset in the input of the first recorded character. */
+        private long base;
+
+        RecordingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            char[] c = new char[1];
+            return read(c, 0, 1) < 0 ? -1 : c[0];
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int count) throws IOException {
+            int n = in.read(buffer, offset, count);
+            if (n > 0) {
+                if (length + n > recorded.length) {
+                    recorded = Arrays.copyOf(recorded, Math.max(recorded.length * 2, length + n));
+                }
+                System.arraycopy(buffer, offset, recorded, length, n);
+                length += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            char[] skipped = new char[(int) Math.min(n, 8192)];
+            int read = read(skipped, 0, skipped.length);
+            return Math.max(read, 0);
+        }
+
+        /**
+         * Returns the characters between two offsets of the input, which must not have
+         * been discarded
+         */
+        String slice(long from, long to) {
+            return new String(recorded, (int) (from - base), (int) (to - from));
+        }
+
+        /**
+         * Stops keeping the characters before an offset of the input
+         */
+        void discardBefore(long offset) {
+            int discarded = (int) (offset - base);
+            length -= discarded;
+            System.arraycopy(recorded, discarded, recorded, 0, length);
+            base = offset;
+        }
+    }
+}
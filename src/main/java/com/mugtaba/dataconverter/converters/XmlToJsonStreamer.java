@@ -0,0 +1,413 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-driven XML to JSON conversion.
+ * <p>
+ * Reads the tokens exposed by Jackson's {@code FromXmlParser} and writes them to a
+ * {@link JsonGenerator}, applying the {@link DynamicConverter#correctTypes} rules to
+ * each value as it passes through. {@code xsi:nil="true"} elements are reported as
+ * nulls by the parser itself and namespace declarations are never exposed, so no
+ * tree of the document is built.
+ * <p>
+ * Repeated sibling elements become a JSON array, at the position of the first of them,
+ * as in the tree read from XML. Since an element may be repeated anywhere further down
+ * its parent, output is collected in an {@link EventBuffer} while any element occurring
+ * once so far has a parent that is still open, and flushed to the generator as soon as
+ * none has. Elements repeated next to each other are known to be arrays and flushed
+ * while they stream, so a long run of records is never held in memory whole. Once other
+ * elements follow such a run, its array is left open in the generator and the rest of
+ * the parent is buffered until the parent ends, when occurrences of the element further
+ * down are added to the array before the other fields are written.
+ * <p>
+ * Values at the paths of a {@link TypeMap} are converted to their declared types instead,
+ * without guessing, and elements declared as arrays are arrays even when they occur once.
+ * The streamer follows the trie of the map down the document alongside the parser; below
+ * fields that no pattern reaches it does no lookups at all. A value that doesn't fit its
+ * declared type, such as {@code "n/a"} declared as an integer, is converted as if it
+ * weren't declared.
+ */
+final class XmlToJsonStreamer {
+
+    private final JsonGenerator json;
+    private final EventBuffer buffer = new EventBuffer();
+    private final ScalarScanner scanner = new ScalarScanner();
+
+    /** The state of the type map at the root element, or null if no types are declared. */
+    private final TypeMap.Node root;
+
+    /** Number of buffered field names not yet known to be single values or arrays. */
+    private int undecided;
+
+    /** The fields of each object being written, reused across objects at the same depth. */
+    private final List<Siblings> siblings = new ArrayList<>();
+
+    /** Depth of the object being written. */
+    private int depth;
+
+    /** Number of text values whose type was guessed, and of values given a declared type. */
+    private long guessed;
+    private long declared;
+
+    /**
+     * A field of an object being written: where its first occurrence was buffered, and
+     * the state of the type map at it.
+     */
+    private static final class Sibling {
+        int position;
+        long generation;
+        TypeMap.Node node;
+    }
+
+    /**
+     * The fields of one object being written, by name.
+     */
+    private static final class Siblings {
+        final Map<String, Sibling> byName = new HashMap<>();
+        final List<Sibling> pool = new ArrayList<>();
+
+        Sibling add(String name) {
+            Sibling sibling = byName.size() < pool.size() ? pool.get(byName.size()) : new Sibling();
+            if (byName.size() == pool.size()) {
+                pool.add(sibling);
+            }
+            byName.put(name, sibling);
+            return sibling;
+        }
+    }
+
+    XmlToJsonStreamer(JsonGenerator json, TypeMap types) {
+        this.json = json;
+        this.root = types.root();
+    }
+
+    /**
+     * Converts the XML document read from the parser into JSON.
+     *
+     * @param parser the XML parser positioned before the first token of the document
+     * @throws IOException if there is an error reading the XML or writing the JSON
+     */
+    void convert(JsonParser parser) throws IOException {
+        TypeCorrectionEvent event = new TypeCorrectionEvent();
+        event.begin();
+        JsonToken token = parser.nextToken();
+        if (token != null) {
+            writeRecord(parser, token);
+        }
+        json.flush();
+        commit(event);
+    }
+
+    /**
+     * Ends a type correction event begun before the values written so far, and commits
+     * it with their counts if it is recorded.
+     *
+     * @param event the event
+     */
+    void commit(TypeCorrectionEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.guessedValues = guessed;
+            event.declaredValues = declared;
+            event.commit();
+        }
+    }
+
+    /**
+     * Converts one complete value, such as a document or a record within it, and
+     * writes it to the generator without flushing the generator.
+     *
+     * @param parser the XML parser
+     * @param token the first token of the value
+     * @throws IOException if there is an error reading the XML or writing the JSON
+     */
+    void writeRecord(JsonParser parser, JsonToken token) throws IOException {
+        writeValue(parser, token, root);
+        buffer.flushTo(json);
+    }
+
+    /**
+     * Converts one child element of the root, typed as the field of the root with that
+     * name, and writes it to the generator without flushing the generator.
+     *
+     * @param parser the XML parser
+     * @param name the name of the element
+     * @param token the first token of the element's value
+     * @throws IOException if there is an error reading the XML or writing the JSON
+     */
+    void writeRecord(JsonParser parser, String name, JsonToken token) throws IOException {
+        writeValue(parser, token, root == null ? null : root.child(name));
+        buffer.flushTo(json);
+    }
+
+    /**
+     * Writes the value the parser is positioned on, with its declared type or a
+     * corrected one.
+     *
+     * @param parser the XML parser
+     * @param token the current token
+     * @param node the state of the type map at the value, or null if nothing at or below it is typed
+     */
+    private void writeValue(JsonParser parser, JsonToken token, TypeMap.Node node) throws IOException {
+        switch (token) {
+            case START_OBJECT -> writeObject(parser, node);
+            case START_ARRAY -> {
+                buffer.writeStartArray();
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    writeValue(parser, item, node);
+                }
+                buffer.writeEndArray();
+            }
+            case VALUE_STRING -> {
+                TypeMap.Type type = node == null ? null : node.textType();
+                if (type == null) {
+                    guessed++;
+                    writeCorrectedText(parser.getText());
+                } else {
+                    declared++;
+                    writeTypedText(parser.getText(), type);
+                }
+            }
+            case VALUE_NULL -> buffer.writeNull();
+            default -> buffer.writeString(parser.getText());
+        }
+    }
+
+    /**
+     * Writes a text value with its type corrected.
+     *
+     * @param text the text read from the XML
+     */
+    private void writeCorrectedText(String text) {
+        switch (scanner.scan(text)) {
+            case INT -> buffer.writeNumber((int) scanner.longValue());
+            case LONG -> buffer.writeNumber(scanner.longValue());
+            case DOUBLE -> buffer.writeNumber(scanner.doubleValue());
+            case TRUE -> buffer.writeBoolean(true);
+            case FALSE -> buffer.writeBoolean(false);
+            case NULL -> buffer.writeNull();
+            case STRING -> buffer.writeString(text);
+        }
+    }
+
+    /**
+     * Writes a text value with its declared type, or with a corrected type if the
+     * text doesn't fit the declared one.
+     *
+     * @param text the text read from the XML
+     * @param type the declared type, other than {@link TypeMap.Type#ARRAY}
+     */
+    private void writeTypedText(String text, TypeMap.Type type) {
+        switch (type) {
+            case STRING -> {
+                buffer.writeString(text);
+                return;
+            }
+            case INT, LONG -> {
+                ScalarScanner.Type scanned = scanner.scan(text);
+                if (scanned == ScalarScanner.Type.INT) {
+                    buffer.writeNumber((int) scanner.longValue());
+                    return;
+                }
+                if (scanned == ScalarScanner.Type.LONG && type == TypeMap.Type.LONG) {
+                    buffer.writeNumber(scanner.longValue());
+                    return;
+                }
+            }
+            case DECIMAL -> {
+                String decimal = decimalText(text);
+                if (decimal != null) {
+                    buffer.writeNumber(decimal);
+                    return;
+                }
+            }
+            case BOOLEAN -> {
+                if (text.equalsIgnoreCase("true") || text.equals("1")) {
+                    buffer.writeBoolean(true);
+                    return;
+                }
+                if (text.equalsIgnoreCase("false") || text.equals("0")) {
+                    buffer.writeBoolean(false);
+                    return;
+                }
+            }
+        }
+        writeCorrectedText(text);
+    }
+
+    /**
+     * Returns a decimal as JSON number text with the same value and digits: the text
+     * itself if it already is a JSON number, such as {@code 714.60}, and otherwise its
+     * normalized form, so {@code 007.5} becomes {@code 7.5} and {@code .5} becomes
+     * {@code 0.5}.
+     *
+     * @param text the text read from the XML
+     * @return the JSON number, or null if the text is not a decimal
+     */
+    private static String decimalText(String text) {
+        if (ScalarScanner.isJsonNumber(text)) {
+            return text;
+        }
+        try {
+            return new BigDecimal(text).toString();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the current object, grouping the fields with the same name into an array,
+     * as are fields declared as arrays. Expects the parser to be positioned on
+     * {@code START_OBJECT} and leaves it on the matching {@code END_OBJECT}.
+     *
+     * @param parser the XML parser
+     * @param node the state of the type map at the object, or null if nothing below it is typed
+     */
+    private void writeObject(JsonParser parser, TypeMap.Node node) throws IOException {
+        buffer.writeStartObject();
+
+        if (siblings.size() == depth) {
+            siblings.add(new Siblings());
+        }
+        Siblings fields = siblings.get(depth++);
+        fields.byName.clear();
+
+        String lastName = null;
+        int lastField = -1;
+        long lastGeneration = 0;
+        TypeMap.Node lastNode = null;
+        boolean inArray = false;
+
+        // Whether the current run of a name counts among the undecided fields, and how
+        // many fields of this object still do
+        boolean counted = false;
+        int pending = 0;
+        boolean scattered = false;
+
+        // Whether an array has ended, so that nothing after it may be flushed before the
+        // object ends; the array left open in the generator, and where the fields after it start
+        boolean held = false;
+        String openArray = null;
+        int rest = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            // Skip XML namespace attributes
+            if (name.startsWith("@xmlns") || name.equals("@xsi:nil")) {
+                parser.skipChildren();
+                continue;
+            }
+
+            if (name.equals(lastName)) {
+                // Second occurrence in a row turns the buffered field into an array
+                if (!inArray) {
+                    buffer.openArrayAt(lastField);
+                    inArray = true;
+                    if (counted) {
+                        counted = false;
+                        pending--;
+                        decided(1);
+                    }
+                }
+            } else {
+                if (inArray) {
+                    if (lastGeneration != buffer.generation()) {
+                        // Already flushed: later occurrences are added to it once the object ends
+                        openArray = lastName;
+                        rest = buffer.size();
+                    } else {
+                        buffer.writeEndArray();
+                    }
+                    if (!held) {
+                        held = true;
+                        pending++;
+                        undecided++;
+                    }
+                }
+                Sibling sibling = fields.byName.get(name);
+                lastName = name;
+                lastField = buffer.writeFieldName(name);
+                lastGeneration = buffer.generation();
+                inArray = false;
+                if (sibling == null) {
+                    // May be repeated anywhere until the object ends
+                    sibling = fields.add(name);
+                    sibling.position = lastField;
+                    sibling.generation = buffer.generation();
+                    sibling.node = node == null ? null : node.child(name);
+                    counted = true;
+                    pending++;
+                    undecided++;
+                } else {
+                    // Merged with the earlier occurrences once the object ends
+                    scattered = true;
+                    counted = false;
+                }
+                lastNode = sibling.node;
+                if (lastNode != null && lastNode.type() == TypeMap.Type.ARRAY) {
+                    // Declared an array: no need to wait for a second occurrence
+                    buffer.openArrayAt(lastField);
+                    inArray = true;
+                    if (counted) {
+                        counted = false;
+                        pending--;
+                        decided(1);
+                    }
+                }
+            }
+            writeValue(parser, value, lastNode);
+        }
+
+        if (inArray) {
+            buffer.writeEndArray();
+        }
+        if (openArray != null) {
+            buffer.groupFields(rest, openArray);
+        } else if (scattered) {
+            buffer.groupFields(firstBuffered(fields), null);
+        }
+        buffer.writeEndObject();
+        depth--;
+        decided(pending);
+    }
+
+    /**
+     * Returns the position of the first field of an object that is still buffered. Any
+     * field flushed before it is an array still being written, since single fields and
+     * the fields after an array are undecided until the object ends.
+     */
+    private int firstBuffered(Siblings fields) {
+        int first = Integer.MAX_VALUE;
+        for (Sibling sibling : fields.byName.values()) {
+            if (sibling.generation == buffer.generation()) {
+                first = Math.min(first, sibling.position);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Records that buffered fields are now known to be single values or arrays,
+     * flushing the buffer once nothing in it is undecided.
+     *
+     * @param count the number of fields decided
+     */
+    private void decided(int count) throws IOException {
+        if (count > 0 && (undecided -= count) == 0) {
+            buffer.flushTo(json);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package main.java.com.mugtaba.dataconverter.server;
+
+import main.java.com.mugtaba.dataconverter.Main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Long-running conversion daemon listening on a Unix domain socket.
+ * <p>
+ * Keeping one process alive means the Jackson mappers are initialized once and the
+ * conversion code stays JIT-compiled, so each request costs milliseconds instead of a
+ * JVM start. Requests take the same arguments as the command line and are handled
+ * concurrently, one virtual thread per connection.
+ * <p>
+ * Protocol, one line per item, UTF-8:
+ * <ul>
+ *   <li>Request: one argument per line, ending with an empty line. An optional
+ *       {@code --cwd=<dir>} argument gives the client's working directory, against
+ *       which relative input paths are resolved.</li>
+ *   <li>Response: each output line prefixed by {@code "O "} (standard output) or
+ *       {@code "E "} (standard error), then {@code "X <status>"} with the exit status.</li>
+ * </ul>
+ * The socket file is only accessible to the owner of the process, since every client
+ * can read and write files with its permissions. Watch mode is not available, since its
+ * requests would never end.
+ */
+public class ConversionServer implements Closeable {
+
+    /** Upper bound on the number of arguments of one request. */
+    private static final int MAX_ARGUMENTS = 256;
+
+    /** Arguments whose values are paths, resolved against the client's working directory. */
+    private static final Set<String> PATH_ARGUMENTS = Set.of("input", "input-dir", "cache", "types");
+
+    /** File type bits of a Unix file mode, and their value for a socket. */
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final Path socketPath;
+    private final ServerSocketChannel channel;
+
+    /**
+     * Binds a server to a socket file, replacing a stale one left by a previous run.
+     *
+     * @param socketPath the path of the socket file
+     * @throws IOException if the socket cannot be bound, or the path is taken by a file
+     *                     that is not a socket
+     */
+    public ConversionServer(Path socketPath) throws IOException {
+        this.socketPath = socketPath.toAbsolutePath();
+        deleteStaleSocket(this.socketPath);
+        this.channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+
+        // The socket is created with the permissions of the umask, so it is bound in a
+        // directory only the owner can enter and moved into place once it is restricted
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory(this.socketPath.getParent(), ".socket",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Path bound = directory.resolve("s");
+            channel.bind(UnixDomainSocketAddress.of(bound));
+            Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+            Files.move(bound, this.socketPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            channel.close();
+            throw e;
+        } finally {
+            if (directory != null) {
+                Files.deleteIfExists(directory.resolve("s"));
+                Files.deleteIfExists(directory);
+            }
+        }
+    }
+
+    /**
+     * Deletes the socket file left at a path by a previous run, refusing to delete or
+     * replace anything else there, such as a file named by mistake
+     */
+    private static void deleteStaleSocket(Path path) throws IOException {
+        boolean socket;
+        try {
+            int mode = (Integer) Files.readAttributes(path, "unix:mode", LinkOption.NOFOLLOW_LINKS).get("mode");
+            socket = (mode & S_IFMT) == S_IFSOCK;
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (UnsupportedOperationException e) {
+            // No unix view: sockets are the only "other" files a previous run leaves behind
+            socket = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+        if (!socket) {
+            throw new IOException("Cannot bind server socket: " + path + " exists and is not a socket");
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Returns the absolute path of the socket file.
+     *
+     * @return the socket path
+     */
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /**
+     * Accepts and handles requests until the server is closed.
+     *
+     * @throws IOException if accepting a connection fails
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            Thread.ofVirtual().name("conversion-request").start(() -> handle(client));
+        }
+    }
+
+    /**
+     * Stops accepting requests and removes the socket file. Requests in progress complete.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            System.err.println("Error: Failed to remove socket " + socketPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads one request from the connection, runs it and writes back its output and status
+     */
+    private void handle(SocketChannel client) {
+        try (client;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int status;
+            try {
+                String[] args = readArguments(reader);
+                status = Main.run(args,
+                        new PrintStream(out, true, StandardCharsets.UTF_8),
+                        new PrintStream(err, true, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                err.writeBytes(("Error: " + e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+                status = 1;
+            }
+
+            writeLines(writer, "O ", out.toString(StandardCharsets.UTF_8));
+            writeLines(writer, "E ", err.toString(StandardCharsets.UTF_8));
+            writer.write("X " + status + "\n");
+        } catch (IOException e) {
+            // The client went away; there is nobody left to report to
+        }
+    }
+
+    /**
+     * Reads the arguments of a request up to the terminating empty line, resolving
+     * relative paths against the client's working directory
+     */
+    private static String[] readArguments(BufferedReader reader) throws IOException {
+        List<String> args = new ArrayList<>();
+        Path cwd = null;
+
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (args.size() == MAX_ARGUMENTS) {
+                throw new IllegalArgumentException("Too many arguments, at most " + MAX_ARGUMENTS + " are accepted");
+            }
+            if (line.startsWith("--cwd=")) {
+                cwd = Paths.get(line.substring("--cwd=".length()));
+                if (!cwd.isAbsolute()) {
+                    throw new IllegalArgumentException("Working directory must be an absolute path, got: " + cwd);
+                }
+            } else if (line.regionMatches(true, 0, "--watch=", 0, "--watch=".length())
+                    && !line.substring("--watch=".length()).equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Watch mode is not supported by the server, run it from the command line");
+            } else {
+                args.add(line);
+            }
+        }
+
+        if (cwd != null) {
+            for (int i = 0; i < args.size(); i++) {
+                args.set(i, resolvePath(args.get(i), cwd));
+            }
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the argument with its value resolved against the working directory
+     * if it names a path, or the argument unchanged
+     */
+    private static String resolvePath(String arg, Path cwd) {
+        int separator = arg.indexOf('=');
+        if (!arg.startsWith("--") || separator < 0
+                || !PATH_ARGUMENTS.contains(arg.substring(2, separator).toLowerCase())) {
+            return arg;
+        }
+        return arg.substring(0, separator + 1) + cwd.resolve(arg.substring(separator + 1));
+    }
+
+    /**
+     * Writes each line of the text with the given prefix
+     */
+    private static void writeLines(Writer writer, String prefix, String text) throws IOException {
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            writer.write(prefix);
+            writer.write(text, start, end - start);
+            writer.write('\n');
+            start = end + 1;
+        }
+    }
+}
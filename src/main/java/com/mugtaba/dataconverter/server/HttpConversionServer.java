@@ -0,0 +1,342 @@
+package main.java.com.mugtaba.dataconverter.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.com.mugtaba.dataconverter.converters.ConversionOptions;
+import main.java.com.mugtaba.dataconverter.spi.ConverterRegistry;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded HTTP conversion service built on the JDK's {@code com.sun.net.httpserver}.
+ * <p>
+ * Exposes {@code POST /convert?from=json&to=xml&root=Name}, between any two formats of the
+ * {@link ConverterRegistry}.
+ * Request bodies are streamed into the converter and its output is streamed back as it
+ * is produced, so no payload is held in memory as a whole. Each exchange runs on its own
+ * virtual thread; a semaphore caps the number of conversions in progress and further
+ * requests are turned away with 503 rather than queued.
+ * <p>
+ * Errors found before any output has been sent are answered with a status code and a
+ * plain text message. Once the response has started, a failure aborts the connection so
+ * that a truncated document cannot be mistaken for a complete one.
+ */
+public class HttpConversionServer implements AutoCloseable {
+
+    /** Root element name used for JSON to XML conversions when none is given. */
+    private static final String DEFAULT_ROOT = "Root";
+
+    /** Element names accepted for the root, which is written to the output unescaped. */
+    private static final Pattern XML_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9._-]*");
+
+    private final ConverterRegistry registry = ConverterRegistry.getDefault();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long maxBodySize;
+
+    /**
+     * Binds a server to an address. It does not accept requests until started.
+     *
+     * @param address        the address to listen on
+     * @param maxBodySize    the maximum size of a request body in bytes
+     * @param maxConcurrency the maximum number of conversions in progress at once
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpConversionServer(InetSocketAddress address, long maxBodySize, int maxConcurrency) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxBodySize = maxBodySize;
+        server.setExecutor(executor);
+        server.createContext("/convert", this::handle);
+    }
+
+    /**
+     * Returns the address the server is bound to.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, giving those in progress a second to complete.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Handles one conversion request
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        // The exchange is deliberately not closed when the handler throws: the server then
+        // drops the connection instead of ending a chunked response that was cut short
+        convert(exchange);
+        exchange.close();
+    }
+
+    /**
+     * Validates the request and streams its body through the converter into the response
+     */
+    private void convert(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendError(exchange, 405, "Only POST is supported");
+            return;
+        }
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String from = query.getOrDefault("from", "").toLowerCase();
+        String to = query.getOrDefault("to", "").toLowerCase();
+        if (!registry.isSupported(from) || !registry.isSupported(to) || from.equals(to)) {
+            sendError(exchange, 400, "Unsupported conversion: from=" + from + " to=" + to
+                    + ". Expected two different formats of: " + String.join(", ", registry.getFormats()));
+            return;
+        }
+        String pretty = query.getOrDefault("pretty", "true");
+        if (!pretty.equalsIgnoreCase("true") && !pretty.equalsIgnoreCase("false")) {
+            sendError(exchange, 400, "Pretty must be 'true' or 'false', got: " + pretty);
+            return;
+        }
+        ConversionOptions options = ConversionOptions.DEFAULT.withPretty(Boolean.parseBoolean(pretty));
+        String root = query.getOrDefault("root", DEFAULT_ROOT);
+        if (!XML_NAME.matcher(root).matches()) {
+            sendError(exchange, 400, "Root must be a valid XML element name, got: " + root);
+            return;
+        }
+
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && parseLength(contentLength) > maxBodySize) {
+            sendError(exchange, 413, "Request body exceeds " + maxBodySize + " bytes");
+            return;
+        }
+
+        if (!permits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Too many conversions in progress");
+            return;
+        }
+        try {
+            exchange.getResponseHeaders().set("Content-Type", registry.get(to).getMediaType() + "; charset=utf-8");
+            InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxBodySize);
+            ResponseStream response = new ResponseStream(exchange);
+            try {
+                registry.convert(body, from, response, to, root, options);
+                response.commit();
+            } catch (BodyTooLargeException e) {
+                failRequest(exchange, response, 413, e.getMessage());
+            } catch (JsonProcessingException e) {
+                // The XML parser reports read errors, including an oversized body, as parse errors
+                if (isBodyTooLarge(e)) {
+                    failRequest(exchange, response, 413, "Request body exceeds " + maxBodySize + " bytes");
+                } else {
+                    failRequest(exchange, response, 400, "Conversion failed: " + e.getOriginalMessage());
+                }
+            } catch (RuntimeException e) {
+                // A bug rather than bad input: still answer, instead of dropping the connection
+                failRequest(exchange, response, 500, "Conversion failed: " + e);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Reports a failed conversion with a status code, or aborts the connection if part
+     * of the response has already been sent
+     */
+    private static void failRequest(HttpExchange exchange, ResponseStream response, int status, String message)
+            throws IOException {
+        if (response.isCommitted()) {
+            throw new IOException("Conversion failed after the response was started: " + message);
+        }
+        exchange.getResponseHeaders().remove("Content-Type");
+        sendError(exchange, status, message);
+    }
+
+    /**
+     * Returns true if the exception was caused by a request body over the limit
+     */
+    private static boolean isBodyTooLarge(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof BodyTooLargeException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends a plain text error response
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Parses a Content-Length header, treating malformed values as unbounded
+     */
+    private static long parseLength(String contentLength) {
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Parses a raw query string into decoded parameters; the last value of a repeated
+     * parameter wins
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8).toLowerCase(),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Signals that a request body grew past the configured limit.
+     */
+    private static final class BodyTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+        }
+    }
+
+    /**
+     * Input stream that fails once more than a given number of bytes have been read,
+     * for bodies sent without a Content-Length.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // Read one byte past the limit, so that a body of exactly the limit is accepted
+            int n = super.read(b, off, (int) Math.min(len, remaining + 1));
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining + 1));
+            consumed(skipped);
+            return skipped;
+        }
+
+        private void consumed(long n) throws BodyTooLargeException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new BodyTooLargeException(limit);
+            }
+        }
+    }
+
+    /**
+     * Response body that sends the 200 status line only when the converter first writes
+     * to it, so errors found early can still be answered with an error status.
+     */
+    private static final class ResponseStream extends OutputStream {
+
+        private final HttpExchange exchange;
+        private OutputStream body;
+
+        ResponseStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        boolean isCommitted() {
+            return body != null;
+        }
+
+        /**
+         * Sends the status line and headers if not yet done, using chunked encoding
+         */
+        void commit() throws IOException {
+            if (body == null) {
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            commit();
+            body.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            commit();
+            body.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Converters flush when they finish; the exchange flushes once the handler is done
+            if (body != null) {
+                body.flush();
+            }
+        }
+    }
+}
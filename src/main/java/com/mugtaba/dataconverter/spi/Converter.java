@@ -0,0 +1,65 @@
+package main.java.com.mugtaba.dataconverter.spi;
+
+import main.java.com.mugtaba.dataconverter.converters.ConversionOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Service-provider interface of a data format: a reader of the format into an
+ * {@link EventStream} and a writer of an event stream into the format.
+ * <p>
+ * Any two registered formats can be converted into one another by connecting the
+ * reader of one to the writer of the other, see {@link ConverterRegistry}.
+ * Implementations are discovered with {@link java.util.ServiceLoader}: list the class,
+ * which needs a public no-argument constructor, in
+ * {@code META-INF/services/main.java.com.mugtaba.dataconverter.spi.Converter} of a jar on
+ * the class path. Implementations must be thread-safe.
+ */
+public interface Converter {
+
+    /**
+     * Returns the name of the format, as given with {@code --format} and {@code --output}.
+     *
+     * @return the lower case format name
+     */
+    String getFormat();
+
+    /**
+     * Returns the file extensions detected as this format.
+     *
+     * @return the lower case extensions, including the leading dot
+     */
+    List<String> getExtensions();
+
+    /**
+     * Returns the media type of the format, used as the content type of HTTP responses.
+     *
+     * @return the media type
+     */
+    String getMediaType();
+
+    /**
+     * Starts reading the input as events. The input is not closed by the returned stream.
+     *
+     * @param input   the stream to read from
+     * @param options the conversion options
+     * @return the events of the input
+     * @throws IOException if the input cannot be read
+     */
+    EventStream read(InputStream input, ConversionOptions options) throws IOException;
+
+    /**
+     * Writes all events of a stream in this format. The output is flushed but not closed.
+     *
+     * @param events   the events to write
+     * @param output   the stream to write to
+     * @param rootName the name of the root element, for formats that have one
+     * @param options  the conversion options
+     * @throws IOException if the events cannot be read or the output cannot be written
+     */
+    void write(EventStream events, OutputStream output, String rootName, ConversionOptions options)
+            throws IOException;
+}
@@ -0,0 +1,145 @@
+package main.java.com.mugtaba.dataconverter.spi;
+
+import main.java.com.mugtaba.dataconverter.converters.ConversionOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The formats known to the converter, discovered as {@link Converter} services, and the
+ * conversion between any two of them.
+ * <p>
+ * A conversion connects the reader of the input format to the writer of the output
+ * format, so each token is read and written once, without an intermediate document.
+ * Registries are immutable and can be shared between threads.
+ */
+public final class ConverterRegistry {
+
+    private static final class DefaultRegistry {
+        static final ConverterRegistry INSTANCE = load(ConverterRegistry.class.getClassLoader());
+    }
+
+    private final Map<String, Converter> byFormat = new LinkedHashMap<>();
+    private final Map<String, Converter> byExtension = new LinkedHashMap<>();
+
+    private ConverterRegistry(Iterable<Converter> converters) {
+        for (Converter converter : converters) {
+            Converter previous = byFormat.putIfAbsent(converter.getFormat(), converter);
+            if (previous != null) {
+                throw new IllegalStateException("Format " + converter.getFormat() + " is provided by both "
+                        + previous.getClass().getName() + " and " + converter.getClass().getName());
+            }
+            for (String extension : converter.getExtensions()) {
+                byExtension.putIfAbsent(extension, converter);
+            }
+        }
+    }
+
+    /**
+     * Returns the registry of the converters on the class path, loaded on first use.
+     *
+     * @return the default registry
+     */
+    public static ConverterRegistry getDefault() {
+        return DefaultRegistry.INSTANCE;
+    }
+
+    /**
+     * Loads the converters visible to a class loader.
+     *
+     * @param classLoader the class loader to look up services with
+     * @return a registry of the converters found
+     * @throws IllegalStateException if two converters provide the same format
+     */
+    public static ConverterRegistry load(ClassLoader classLoader) {
+        return new ConverterRegistry(ServiceLoader.load(Converter.class, classLoader));
+    }
+
+    /**
+     * Returns the names of all registered formats, in discovery order.
+     *
+     * @return the format names
+     */
+    public Set<String> getFormats() {
+        return Collections.unmodifiableSet(byFormat.keySet());
+    }
+
+    /**
+     * Returns the converter of a format.
+     *
+     * @param format the format name, in any case
+     * @return the converter
+     * @throws IllegalArgumentException if the format is not registered
+     */
+    public Converter get(String format) {
+        Converter converter = byFormat.get(format.toLowerCase());
+        if (converter == null) {
+            throw new IllegalArgumentException("Unsupported format: " + format
+                    + ". Supported formats: " + String.join(", ", byFormat.keySet()));
+        }
+        return converter;
+    }
+
+    /**
+     * Returns whether a format is registered.
+     *
+     * @param format the format name, in any case
+     * @return true if there is a converter for the format
+     */
+    public boolean isSupported(String format) {
+        return byFormat.containsKey(format.toLowerCase());
+    }
+
+    /**
+     * Detects the format of a file from its extension.
+     *
+     * @param fileName the file name or path
+     * @return the format name, or null if no converter claims the extension
+     */
+    public String detectFormat(String fileName) {
+        String lowerName = fileName.toLowerCase();
+        for (Map.Entry<String, Converter> entry : byExtension.entrySet()) {
+            if (lowerName.endsWith(entry.getKey())) {
+                return entry.getValue().getFormat();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns all extensions claimed by the registered converters.
+     *
+     * @return the extensions, including the leading dot
+     */
+    public Set<String> getExtensions() {
+        return Collections.unmodifiableSet(byExtension.keySet());
+    }
+
+    /**
+     * Converts the input from one format to another by streaming the events read by the
+     * input format's converter into the output format's converter. Neither stream is closed.
+     *
+     * @param input        the stream to read from
+     * @param inputFormat  the format of the input
+     * @param output       the stream to write to
+     * @param outputFormat the format of the output
+     * @param rootName     the name of the root element, for formats that have one
+     * @param options      the conversion options
+     * @throws IOException              if the input cannot be read or converted, or the output cannot be written
+     * @throws IllegalArgumentException if a format is not registered
+     */
+    public void convert(InputStream input, String inputFormat, OutputStream output, String outputFormat,
+                        String rootName, ConversionOptions options) throws IOException {
+        Converter reader = get(inputFormat);
+        Converter writer = get(outputFormat);
+        try (EventStream events = reader.read(input, options)) {
+            writer.write(events, output, rootName, options);
+        }
+    }
+}
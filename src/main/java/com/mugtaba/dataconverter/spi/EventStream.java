@@ -0,0 +1,73 @@
+package main.java.com.mugtaba.dataconverter.spi;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A document read by a {@link Converter}, as the stream of Jackson tokens that every
+ * format is converted through.
+ * <p>
+ * Tokens are pulled by the writing converter straight from the reading converter's
+ * parser, so no tree or intermediate copy of the document is built. Two flags tell the
+ * writer how to interpret them: whether each top-level value is a separate record, and
+ * whether scalars are untyped text, as read from XML, whose types the writer infers.
+ */
+public final class EventStream implements Closeable {
+
+    private final JsonParser parser;
+    private final boolean records;
+    private final boolean textOnly;
+
+    /**
+     * Creates an event stream.
+     *
+     * @param parser   the parser positioned before the first token
+     * @param records  true if every top-level value is a record, false for a single document
+     * @param textOnly true if scalar values are text whose types are to be inferred
+     */
+    public EventStream(JsonParser parser, boolean records, boolean textOnly) {
+        this.parser = parser;
+        this.records = records;
+        this.textOnly = textOnly;
+    }
+
+    /**
+     * Returns the parser the tokens are read from.
+     *
+     * @return the parser
+     */
+    public JsonParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Returns whether the stream is a sequence of top-level records rather than one document.
+     *
+     * @return true for a sequence of records
+     */
+    public boolean isRecords() {
+        return records;
+    }
+
+    /**
+     * Returns whether scalar values are untyped text, with repeated elements reported as
+     * repeated field names, as a parser of XML reports them.
+     *
+     * @return true for untyped text values
+     */
+    public boolean isTextOnly() {
+        return textOnly;
+    }
+
+    /**
+     * Closes the parser, without closing the stream it reads from.
+     *
+     * @throws IOException if the parser cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
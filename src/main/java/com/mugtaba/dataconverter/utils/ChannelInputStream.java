@@ -0,0 +1,116 @@
+package main.java.com.mugtaba.dataconverter.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input stream that reads a file through a {@link FileChannel} and a direct buffer.
+ * <p>
+ * Unlike {@link MappedFileInputStream}, every read is an explicit {@link FileChannel#read}
+ * call. On a virtual thread the JDK makes up for such a blocking call by adding a carrier
+ * thread while it lasts, which it cannot do for the page faults of a mapping, so many
+ * slow reads of network-mounted files can be pending at once. Leading whitespace is
+ * skipped on open, as XML parsers reject anything before the XML declaration; trailing
+ * whitespace is left to the parsers.
+ */
+public final class ChannelInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer buffer;
+    private long position;
+    private boolean endOfFile;
+
+    /**
+     * Opens the file and reads up to its first non-whitespace byte.
+     *
+     * @param path the file to read
+     * @param bufferSize the size of the direct buffer in bytes
+     * @throws IOException if the file cannot be opened or read
+     */
+    public ChannelInputStream(Path path, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).flip();
+            skipLeadingWhitespace();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes left to read, by the size of the file when it was opened.
+     */
+    @Override
+    public int available() {
+        long unread = endOfFile ? 0 : Math.max(0, size - position);
+        return (int) Math.min(Integer.MAX_VALUE, buffer.remaining() + unread);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes sure the buffer has unread bytes, reading more of the file if needed.
+     *
+     * @return false if the end of the file has been reached
+     */
+    private boolean ensureAvailable() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (endOfFile) {
+                return false;
+            }
+            buffer.clear();
+            int count = channel.read(buffer);
+            buffer.flip();
+            if (count < 0) {
+                endOfFile = true;
+            } else {
+                position += count;
+            }
+        }
+        return true;
+    }
+
+    private void skipLeadingWhitespace() throws IOException {
+        while (ensureAvailable()) {
+            byte b = buffer.get(buffer.position());
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            buffer.position(buffer.position() + 1);
+        }
+    }
+}
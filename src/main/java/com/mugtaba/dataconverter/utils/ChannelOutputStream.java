@@ -0,0 +1,82 @@
+package main.java.com.mugtaba.dataconverter.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An output stream that writes to a {@link FileChannel} through a direct buffer.
+ * <p>
+ * Small writes are collected in an off-heap buffer that is handed to the channel
+ * without the extra copy the JDK makes for heap buffers; writes at least as large
+ * as the buffer go to the channel directly.
+ */
+public final class ChannelOutputStream extends OutputStream {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a stream writing to the channel.
+     *
+     * @param channel the channel to write to; closed when this stream is closed
+     * @param bufferSize the size of the direct buffer in bytes
+     */
+    public ChannelOutputStream(FileChannel channel, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len >= buffer.capacity()) {
+            drain();
+            ByteBuffer source = ByteBuffer.wrap(b, off, len);
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            return;
+        }
+        if (len > buffer.remaining()) {
+            drain();
+        }
+        buffer.put(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
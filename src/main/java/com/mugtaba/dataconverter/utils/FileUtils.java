@@ -1,6 +1,11 @@
 package main.java.com.mugtaba.dataconverter.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -9,6 +14,9 @@ import java.nio.file.StandardOpenOption;
 
 public class FileUtils {
 
+    /** Default size of the buffer used when writing output files. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Reads the entire content of a file as a string using UTF-8 encoding.
      *
@@ -18,6 +26,66 @@ public class FileUtils {
      * @throws IllegalArgumentException if the file path is null or empty
      */
     public static String readFile(String filePath) throws IOException {
+        Path path = resolveReadableFile(filePath);
+
+        try {
+            String content = Files.readString(path, StandardCharsets.UTF_8);
+            return content.trim();
+        } catch (IOException e) {
+            throw new IOException("Failed to read file: " + filePath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a file for streaming through a memory mapping, so its content is fed to the
+     * parsers as bytes without being decoded into a String or copied into the Java heap.
+     * Leading whitespace is skipped; trailing whitespace is left to the parsers.
+     *
+     * @param filePath the path to the file to read
+     * @return a stream positioned at the first non-whitespace byte of the file
+     * @throws IOException              if an I/O error occurs opening the file
+     * @throws IllegalArgumentException if the file path is null or empty
+     */
+    public static MappedFileInputStream openInputStream(String filePath) throws IOException {
+        Path path = resolveReadableFile(filePath);
+
+        try {
+            return new MappedFileInputStream(path, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
+        } catch (IOException e) {
+            throw new IOException("Failed to read file: " + filePath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a file for streaming through plain {@code FileChannel} reads into a direct
+     * buffer, which block a virtual thread without blocking its carrier thread.
+     * Leading whitespace is skipped; trailing whitespace is left to the parsers.
+     *
+     * @param filePath   the path to the file to read
+     * @param bufferSize the size of the read buffer in bytes
+     * @return a stream positioned at the first non-whitespace byte of the file
+     * @throws IOException              if an I/O error occurs opening the file
+     * @throws IllegalArgumentException if the file path is null or empty
+     */
+    public static ChannelInputStream openChannelInputStream(String filePath, int bufferSize) throws IOException {
+        Path path = resolveReadableFile(filePath);
+
+        try {
+            return new ChannelInputStream(path, bufferSize);
+        } catch (IOException e) {
+            throw new IOException("Failed to read file: " + filePath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks that a path denotes an existing, readable regular file.
+     *
+     * @param filePath the path to check
+     * @return the resolved path
+     * @throws IOException              if the file does not exist, is not readable or is a directory
+     * @throws IllegalArgumentException if the file path is null or empty
+     */
+    private static Path resolveReadableFile(String filePath) throws IOException {
         if (filePath == null || filePath.trim().isEmpty()) {
             throw new IllegalArgumentException("File path cannot be null or empty");
         }
@@ -36,12 +104,7 @@ public class FileUtils {
             throw new IOException("Path is a directory, not a file: " + filePath);
         }
 
-        try {
-            String content = Files.readString(path, StandardCharsets.UTF_8);
-            return content.trim();
-        } catch (IOException e) {
-            throw new IOException("Failed to read file: " + filePath + ". " + e.getMessage(), e);
-        }
+        return path;
     }
 
     /**
@@ -62,6 +125,94 @@ public class FileUtils {
             throw new IllegalArgumentException("Content cannot be null");
         }
 
+        Path path = createParentDirectories(filePath);
+
+        try {
+            Files.writeString(path, content, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new IOException("Failed to write file: " + filePath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a file for incremental writing through a buffer of the default size.
+     *
+     * @param filePath the path to the file to write
+     * @return a buffered stream writing to the file
+     * @throws IOException              if an I/O error occurs opening the file
+     * @throws IllegalArgumentException if the file path is null or empty
+     * @see #openOutputStream(String, int, boolean)
+     */
+    public static OutputStream openOutputStream(String filePath) throws IOException {
+        return openOutputStream(filePath, DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Opens a file for incremental writing, so converted output is flushed to disk as
+     * conversion proceeds instead of being collected in memory first. Creates the file
+     * and any necessary parent directories if they don't exist, and truncates an
+     * existing file.
+     *
+     * @param filePath   the path to the file to write
+     * @param bufferSize the size of the write buffer in bytes
+     * @param direct     whether to write through a {@link FileChannel} with an off-heap buffer
+     *                   instead of a heap-buffered stream
+     * @return a buffered stream writing to the file
+     * @throws IOException              if an I/O error occurs opening the file
+     * @throws IllegalArgumentException if the file path is null or empty, or the buffer size is not positive
+     */
+    public static OutputStream openOutputStream(String filePath, int bufferSize, boolean direct) throws IOException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty");
+        }
+
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, got: " + bufferSize);
+        }
+
+        Path path = createParentDirectories(filePath);
+
+        try {
+            if (direct) {
+                FileChannel channel = FileChannel.open(path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                return new ChannelOutputStream(channel, bufferSize);
+            }
+            return new BufferedOutputStream(Files.newOutputStream(path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING), bufferSize);
+        } catch (IOException e) {
+            throw new IOException("Failed to write file: " + filePath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a file for incremental writing of UTF-8 encoded text.
+     *
+     * @param filePath   the path to the file to write
+     * @param bufferSize the size of the write buffer in bytes
+     * @return a buffered writer writing to the file
+     * @throws IOException              if an I/O error occurs opening the file
+     * @throws IllegalArgumentException if the file path is null or empty, or the buffer size is not positive
+     */
+    public static Writer openWriter(String filePath, int bufferSize) throws IOException {
+        return new OutputStreamWriter(openOutputStream(filePath, bufferSize, false), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates the parent directories of a file if they don't exist.
+     *
+     * @param filePath the path to the file
+     * @return the resolved path
+     * @throws IOException if the directories cannot be created
+     */
+    private static Path createParentDirectories(String filePath) throws IOException {
         Path path = Paths.get(filePath);
 
         // Create parent directories if they don't exist
@@ -74,13 +225,6 @@ public class FileUtils {
             }
         }
 
-        try {
-            Files.writeString(path, content, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.WRITE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            throw new IOException("Failed to write file: " + filePath + ". " + e.getMessage(), e);
-        }
+        return path;
     }
-}
\ No newline at end of file
+}
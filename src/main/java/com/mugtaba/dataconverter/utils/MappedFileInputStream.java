@@ -0,0 +1,137 @@
+package main.java.com.mugtaba.dataconverter.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input stream over a memory-mapped file.
+ * <p>
+ * The file is mapped in windows of at most {@link #DEFAULT_WINDOW_SIZE} bytes, so files
+ * larger than 2 GB can be read and the file content never has to be copied into
+ * the Java heap. Leading whitespace is skipped on open, as XML parsers reject
+ * anything before the XML declaration; trailing whitespace is left to the parsers.
+ */
+public final class MappedFileInputStream extends InputStream {
+
+    /** Default size of each mapped window of the file. */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    /**
+     * Opens the file and maps its first window.
+     *
+     * @param path the file to read
+     * @param windowSize the maximum number of bytes mapped at a time
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileInputStream(Path path, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive, got: " + windowSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.windowSize = windowSize;
+            mapWindow(0);
+            skipLeadingWhitespace();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of bytes left to read.
+     *
+     * @return the remaining byte count
+     */
+    public long remaining() {
+        return size - windowStart - window.position();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(len, window.remaining());
+        window.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, remaining()));
+        if (skipped > 0) {
+            long target = windowStart + window.position() + skipped;
+            if (target < windowStart + window.limit()) {
+                window.position((int) (target - windowStart));
+            } else {
+                mapWindow(target);
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, remaining());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes sure the current window has unread bytes, mapping the next window if needed.
+     *
+     * @return false if the end of the file has been reached
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+        long next = windowStart + window.limit();
+        if (next >= size) {
+            return false;
+        }
+        mapWindow(next);
+        return true;
+    }
+
+    private void mapWindow(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+
+    private void skipLeadingWhitespace() throws IOException {
+        while (ensureAvailable()) {
+            byte b = window.get(window.position());
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            window.position(window.position() + 1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package main.java.com.mugtaba.dataconverter.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that counts the bytes read through it and the time spent reading them.
+ * <p>
+ * Parsers read in blocks of several kilobytes, so timing each call adds next to nothing
+ * to a conversion, and the time measured is that of the underlying stream: copying from
+ * a memory mapping and the page faults that bring the file in.
+ */
+public final class MeteredInputStream extends FilterInputStream {
+
+    private long bytes;
+    private long nanos;
+
+    /**
+     * Creates a stream reading from another.
+     *
+     * @param in the stream to read from; closed when this stream is closed
+     */
+    public MeteredInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = in.read();
+        nanos += System.nanoTime() - start;
+        if (b >= 0) {
+            bytes++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        int n = in.read(b, off, len);
+        nanos += System.nanoTime() - start;
+        if (n > 0) {
+            bytes += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long start = System.nanoTime();
+        long skipped = in.skip(n);
+        nanos += System.nanoTime() - start;
+        bytes += skipped;
+        return skipped;
+    }
+
+    /**
+     * Returns the number of bytes read or skipped so far.
+     *
+     * @return the byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the time spent in the underlying stream so far.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
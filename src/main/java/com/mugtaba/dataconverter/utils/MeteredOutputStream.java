@@ -0,0 +1,76 @@
+package main.java.com.mugtaba.dataconverter.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that counts the bytes written through it and the time spent writing
+ * them, including flushing and closing the underlying stream.
+ */
+public final class MeteredOutputStream extends FilterOutputStream {
+
+    private long bytes;
+    private long nanos;
+
+    /**
+     * Creates a stream writing to another.
+     *
+     * @param out the stream to write to; closed when this stream is closed
+     */
+    public MeteredOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        long start = System.nanoTime();
+        out.write(b);
+        nanos += System.nanoTime() - start;
+        bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write the bytes one at a time
+        long start = System.nanoTime();
+        out.write(b, off, len);
+        nanos += System.nanoTime() - start;
+        bytes += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        out.flush();
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long start = System.nanoTime();
+        try {
+            out.close();
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the time spent in the underlying stream so far.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
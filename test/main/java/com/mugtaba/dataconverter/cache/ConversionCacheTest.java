@@ -0,0 +1,120 @@
+package main.java.com.mugtaba.dataconverter.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionCacheTest {
+
+    private static final String SETTINGS = "json->xml pretty";
+
+    /** Well before the cache records anything, so that the timestamp alone is trusted. */
+    private static final Instant EARLIER = Instant.now().minus(1, ChronoUnit.HOURS);
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private Path output;
+    private ConversionCache cache;
+
+    @BeforeEach
+    void convertOnce() throws IOException {
+        input = write("input.json", "{\"a\":1}", EARLIER);
+        output = Files.writeString(directory.resolve("input.xml"), "<a>1</a>");
+        cache = ConversionCache.open(directory.resolve("manifest.json"));
+
+        ConversionCache.Lookup lookup = cache.lookup(input, output, SETTINGS);
+        assertFalse(lookup.isUpToDate());
+        cache.record(lookup, true);
+    }
+
+    private Path write(String name, String content, Instant modified) throws IOException {
+        Path file = Files.writeString(directory.resolve(name), content);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+
+    private boolean upToDate() throws IOException {
+        return cache.lookup(input, output, SETTINGS).isUpToDate();
+    }
+
+    @Test
+    void skipsUnchangedInputs() throws Exception {
+        assertTrue(upToDate());
+        assertEquals(1, cache.getUpToDateCount());
+        assertEquals(1, cache.getWrittenCount());
+    }
+
+    @Test
+    void trustsInputsWithTheRecordedSizeAndModificationTimeWithoutReadingThem() throws Exception {
+        write("input.json", "{\"a\":2}", EARLIER);
+        assertTrue(upToDate());
+    }
+
+    @Test
+    void convertsInputsOfAnotherSize() throws Exception {
+        write("input.json", "{\"a\":10}", EARLIER);
+        assertFalse(upToDate());
+    }
+
+    @Test
+    void skipsTouchedInputsWithTheSameChecksum() throws Exception {
+        write("input.json", "{\"a\":1}", EARLIER.plusSeconds(60));
+        assertTrue(upToDate());
+        // The entry now has the new modification time, so it is trusted again
+        write("input.json", "{\"a\":2}", EARLIER.plusSeconds(60));
+        assertTrue(upToDate());
+    }
+
+    @Test
+    void convertsTouchedInputsWithAnotherChecksum() throws Exception {
+        write("input.json", "{\"a\":2}", EARLIER.plusSeconds(60));
+        assertFalse(upToDate());
+    }
+
+    @Test
+    void checksumsInputsModifiedShortlyBeforeTheyWereRecorded() throws Exception {
+        Instant recent = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        write("input.json", "{\"a\":1}", recent);
+        cache.record(cache.lookup(input, output, SETTINGS), true);
+
+        write("input.json", "{\"a\":2}", recent);
+        assertFalse(upToDate());
+    }
+
+    @Test
+    void convertsInputsAgainWithOtherSettings() throws Exception {
+        assertFalse(cache.lookup(input, output, "json->xml compact").isUpToDate());
+        assertFalse(cache.lookup(input, directory.resolve("other.xml"), SETTINGS).isUpToDate());
+    }
+
+    @Test
+    void convertsInputsAgainWhenTheirOutputChanged() throws Exception {
+        Files.writeString(output, "<a>2</a>!");
+        assertFalse(upToDate());
+        Files.delete(output);
+        assertFalse(upToDate());
+    }
+
+    @Test
+    void keepsEntriesAcrossRuns() throws Exception {
+        cache.save();
+        cache = ConversionCache.open(directory.resolve("manifest.json"));
+        assertTrue(upToDate());
+
+        cache = ConversionCache.open(directory.resolve("missing.json"));
+        assertFalse(upToDate());
+    }
+}
@@ -0,0 +1,101 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonArrayToXmlStreamerTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    static void shutDown() {
+        executor.shutdown();
+    }
+
+    private static String sequential(String json, ConversionOptions options) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        DynamicConverter.jsonToXml(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), xml,
+                "Items", options);
+        return xml.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String parallel(String json, ConversionOptions options, int chunkSize) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        DynamicConverter.jsonToXml(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), xml,
+                "Items", options, executor, chunkSize, 3);
+        return xml.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String items(int count) {
+        StringBuilder json = new StringBuilder("  [\n");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",\n")
+                    .append("{\"id\":").append(i)
+                    .append(", \"note\":\"has , ] } [ { and \\\"quotes\\\" \\\\\"")
+                    .append(", \"values\":[").append(i).append(", [\"x\", {\"y\":null}], ").append(i % 2 == 0).append("]")
+                    .append(", \"empty\":[]}");
+            if (i % 7 == 0) {
+                json.append(",\n").append(i).append(",\n\"plain ").append(i).append('"');
+            }
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    @Test
+    void parallelOutputIsIdenticalToSequentialOutput() throws Exception {
+        String json = items(200);
+        for (ConversionOptions options : new ConversionOptions[] {
+                ConversionOptions.DEFAULT, ConversionOptions.DEFAULT.withPretty(false)}) {
+            String expected = sequential(json, options);
+            for (int chunkSize : new int[] {1, 100, 4096, 1 << 20}) {
+                assertEquals(expected, parallel(json, options, chunkSize), "chunk size " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void parallelOutputOfOtherDocumentsIsIdenticalToSequentialOutput() throws Exception {
+        for (String json : new String[] {"[]", "[ ]", "[1]", "{\"a\":[1,2]}", "\"text\""}) {
+            assertEquals(sequential(json, ConversionOptions.DEFAULT), parallel(json, ConversionOptions.DEFAULT, 1),
+                    json);
+        }
+    }
+
+    @Test
+    void parallelConversionIgnoresContentAfterTheArrayAsSequentialConversionDoes() throws Exception {
+        String valid = items(20);
+        for (String json : new String[] {valid + "x", valid + "[]", valid + "}"}) {
+            assertEquals(sequential(json, ConversionOptions.DEFAULT), parallel(json, ConversionOptions.DEFAULT, 100));
+        }
+    }
+
+    @Test
+    void parallelConversionRejectsWhatSequentialConversionRejects() {
+        String valid = items(20);
+        String items = valid.substring(0, valid.lastIndexOf(']'));
+        for (String malformed : new String[] {
+                "[1, 2}",
+                "[{\"a\":1]]",
+                "[{\"a\":[1}]",
+                items + "}",
+                items + ", {\"a\":}]",
+                items + ", [1,,2]]",
+                items}) {
+            assertThrows(IOException.class, () -> sequential(malformed, ConversionOptions.DEFAULT), malformed);
+            for (int chunkSize : new int[] {1, 100, 1 << 20}) {
+                assertThrows(IOException.class, () -> parallel(malformed, ConversionOptions.DEFAULT, chunkSize),
+                        malformed + ", chunk size " + chunkSize);
+            }
+        }
+    }
+}
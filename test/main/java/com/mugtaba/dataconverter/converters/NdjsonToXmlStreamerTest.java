@@ -0,0 +1,85 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NdjsonToXmlStreamerTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    static void shutDown() {
+        executor.shutdown();
+    }
+
+    private static String sequential(String ndjson, ConversionOptions options) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        DynamicConverter.ndjsonToXml(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), xml,
+                "Feed", options);
+        return xml.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String parallel(String ndjson, ConversionOptions options, int chunkSize) throws IOException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        DynamicConverter.ndjsonToXml(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), xml,
+                "Feed", options, executor, chunkSize, 3);
+        return xml.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String records(int count) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            ndjson.append("{\"id\":").append(i)
+                    .append(",\"name\":\"r\\u00e9cord \\\"").append(i).append("\\\" {[<&>]}\"")
+                    .append(",\"tags\":[\"a\",").append(i % 3 == 0 ? "null" : "true").append("]")
+                    .append(",\"nested\":{\"values\":[").append(i).append(",").append(i * 0.5).append("],\"empty\":{}}}")
+                    .append(i % 5 == 0 ? "\r\n\n" : "\n");
+        }
+        return ndjson.toString();
+    }
+
+    @Test
+    void parallelOutputIsIdenticalToSequentialOutput() throws Exception {
+        String ndjson = records(200);
+        for (ConversionOptions options : new ConversionOptions[] {
+                ConversionOptions.DEFAULT, ConversionOptions.DEFAULT.withPretty(false)}) {
+            String expected = sequential(ndjson, options);
+            for (int chunkSize : new int[] {1, 100, 4096, 1 << 20}) {
+                assertEquals(expected, parallel(ndjson, options, chunkSize), "chunk size " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void parallelOutputOfEmptyInputIsIdenticalToSequentialOutput() throws Exception {
+        for (String ndjson : new String[] {"", "\n\n", "  \r\n"}) {
+            assertEquals(sequential(ndjson, ConversionOptions.DEFAULT), parallel(ndjson, ConversionOptions.DEFAULT, 16));
+        }
+    }
+
+    @Test
+    void parallelConversionRejectsWhatSequentialConversionRejects() {
+        String valid = records(20);
+        for (String malformed : new String[] {
+                valid + "{\"a\":}\n" + valid,
+                valid + "{\"a\":1\n",
+                valid + "]\n",
+                valid + "{\"a\":[1}\n"}) {
+            assertThrows(IOException.class, () -> sequential(malformed, ConversionOptions.DEFAULT));
+            for (int chunkSize : new int[] {1, 100, 1 << 20}) {
+                assertThrows(IOException.class, () -> parallel(malformed, ConversionOptions.DEFAULT, chunkSize),
+                        "chunk size " + chunkSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScalarScannerTest {
+
+    private final ScalarScanner scanner = new ScalarScanner();
+
+    private void assertLong(String text, long expected) {
+        assertEquals(ScalarScanner.Type.LONG, scanner.scan(text), text);
+        assertEquals(expected, scanner.longValue(), text);
+    }
+
+    private void assertDouble(String text) {
+        assertEquals(ScalarScanner.Type.DOUBLE, scanner.scan(text), text);
+        assertEquals(Double.parseDouble(text), scanner.doubleValue(), text);
+    }
+
+    @Test
+    void scansLongRangeBoundaries() {
+        assertLong("9223372036854775807", Long.MAX_VALUE);
+        assertLong("-9223372036854775808", Long.MIN_VALUE);
+    }
+
+    @Test
+    void keepsIntegersBeyondLongRangeAsStrings() {
+        assertEquals(ScalarScanner.Type.STRING, scanner.scan("9223372036854775808"));
+        assertEquals(ScalarScanner.Type.STRING, scanner.scan("-9223372036854775809"));
+    }
+
+    @Test
+    void scansDecimalsAtLongRangeBoundaries() {
+        assertDouble("9223372036854775807.5");
+        assertDouble("9223372036854775808.5");
+        assertDouble("-9223372036854775808.5");
+        assertDouble("-9223372036854775809.5");
+    }
+
+    @Test
+    void scansDecimalsAtExactMantissaBoundary() {
+        assertDouble("9007199254740992.5");
+        assertDouble("-9007199254740993.25");
+        assertDouble("0.1");
+        assertDouble("-.5");
+    }
+}
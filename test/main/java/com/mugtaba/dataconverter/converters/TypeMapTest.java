@@ -0,0 +1,118 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeMapTest {
+
+    @TempDir
+    Path directory;
+
+    private static TypeMap types(String... pathsAndTypes) {
+        Map<String, TypeMap.Type> patterns = new LinkedHashMap<>();
+        for (int i = 0; i < pathsAndTypes.length; i += 2) {
+            patterns.put(pathsAndTypes[i], TypeMap.Type.valueOf(pathsAndTypes[i + 1]));
+        }
+        return TypeMap.of(patterns);
+    }
+
+    private static TypeMap.Type typeAt(TypeMap types, String path) {
+        TypeMap.Node node = types.root();
+        for (String name : path.split("/")) {
+            node = node == null ? null : node.child(name);
+        }
+        return node == null ? null : node.type();
+    }
+
+    private static String convert(String xml, TypeMap types) throws JsonProcessingException {
+        return DynamicConverter.xmlToJson(xml, ConversionOptions.DEFAULT.withPretty(false).withTypes(types));
+    }
+
+    @Test
+    void matchesLiteralAndWildcardPaths() {
+        TypeMap types = types("order/id", "LONG", "*/zip", "STRING", "order/*/sku", "STRING");
+        assertEquals(TypeMap.Type.LONG, typeAt(types, "order/id"));
+        assertEquals(TypeMap.Type.STRING, typeAt(types, "order/zip"));
+        assertEquals(TypeMap.Type.STRING, typeAt(types, "customer/zip"));
+        assertEquals(TypeMap.Type.STRING, typeAt(types, "order/item/sku"));
+        assertNull(typeAt(types, "order/total"));
+        assertNull(typeAt(types, "customer/id"));
+    }
+
+    @Test
+    void stopsBelowFieldsThatNoPatternReaches() {
+        TypeMap types = types("order/id", "LONG");
+        assertNull(types.root().child("customer"));
+        assertNull(types.root().child("order").child("id").child("anything"));
+    }
+
+    @Test
+    void prefersFewestWildcardsThenFirstListed() {
+        TypeMap types = types("*/*", "STRING", "a/*", "INT", "*/b", "LONG", "a/b", "DECIMAL");
+        assertEquals(TypeMap.Type.DECIMAL, typeAt(types, "a/b"));
+        assertEquals(TypeMap.Type.INT, typeAt(types, "a/c"));
+        assertEquals(TypeMap.Type.LONG, typeAt(types, "c/b"));
+        assertEquals(TypeMap.Type.STRING, typeAt(types, "c/c"));
+    }
+
+    @Test
+    void convertsDeclaredValuesAndGuessesTheOthers() throws Exception {
+        TypeMap types = types("zip", "STRING", "total", "DECIMAL", "active", "BOOLEAN", "id", "LONG");
+        assertEquals("{\"zip\":\"02134\",\"total\":714.60,\"active\":true,\"id\":12,\"count\":3,\"code\":7}",
+                convert("<o><zip>02134</zip><total>714.60</total><active>1</active><id>12</id>"
+                        + "<count>3</count><code>007</code></o>", types));
+    }
+
+    @Test
+    void guessesValuesThatDoNotFitTheirDeclaredType() throws Exception {
+        TypeMap types = types("id", "INT", "active", "BOOLEAN", "total", "DECIMAL", "big", "INT");
+        assertEquals("{\"id\":\"n/a\",\"active\":12,\"total\":\"none\",\"big\":9999999999}",
+                convert("<o><id>n/a</id><active>12</active><total>none</total><big>9999999999</big></o>", types));
+    }
+
+    @Test
+    void writesDeclaredArraysWithGuessedOrDeclaredItems() throws Exception {
+        TypeMap types = TypeMap.of(Map.of("zip", TypeMap.Type.ARRAY, "code", TypeMap.Type.ARRAY),
+                Map.of("zip", TypeMap.Type.STRING));
+        assertEquals("{\"zip\":[\"02134\",\"02135\"],\"code\":[7]}",
+                convert("<o><zip>02134</zip><zip>02135</zip><code>007</code></o>", types));
+    }
+
+    @Test
+    void loadsArrayItemTypes() throws Exception {
+        Path file = Files.writeString(directory.resolve("types.json"),
+                "{\"zip\": \"array<string>\", \"id\": \"long\"}");
+        TypeMap types = TypeMap.load(file);
+        assertEquals(Map.of("zip", TypeMap.Type.STRING), types.getItemTypes());
+        assertEquals("{zip=array<string>, id=long}", types.toString());
+        assertEquals("{\"zip\":[\"02134\"],\"id\":5}", convert("<o><zip>02134</zip><id>5</id></o>", types));
+    }
+
+    @Test
+    void rejectsFilesListingAPathTwice() throws Exception {
+        Path file = Files.writeString(directory.resolve("types.json"), "{\"id\": \"int\", \"id\": \"long\"}");
+        IOException e = assertThrows(IOException.class, () -> TypeMap.load(file));
+        assertTrue(e.getMessage().contains("Duplicate field 'id'"), e.getMessage());
+    }
+
+    @Test
+    void rejectsInvalidTypes() throws Exception {
+        Path file = Files.writeString(directory.resolve("types.json"), "{\"id\": \"array<array>\"}");
+        assertThrows(IOException.class, () -> TypeMap.load(file));
+        assertThrows(IllegalArgumentException.class,
+                () -> TypeMap.of(Map.of("id", TypeMap.Type.INT), Map.of("id", TypeMap.Type.STRING)));
+        assertThrows(IllegalArgumentException.class, () -> types("", "INT"));
+    }
+}
@@ -0,0 +1,132 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XmlRecordsToJsonStreamerTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private static final ConversionOptions SPLIT = ConversionOptions.DEFAULT.withSplitRecords(true);
+
+    @AfterAll
+    static void shutDown() {
+        executor.shutdown();
+    }
+
+    private static ByteArrayInputStream input(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sequential(String xml, ConversionOptions options) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        DynamicConverter.xmlToJson(input(xml), json, options);
+        return json.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String parallel(String xml, ConversionOptions options, int chunkSize) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        DynamicConverter.xmlToJson(input(xml), json, options, executor, chunkSize, 3);
+        return json.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String sequentialLines(String xml) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        DynamicConverter.xmlToNdjson(input(xml), json);
+        return json.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String parallelLines(String xml, TypeMap types, int chunkSize) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        DynamicConverter.xmlToNdjson(input(xml), json, types, executor, chunkSize, 3);
+        return json.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String records(int count) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<feed xmlns:x=\"urn:x\" version=\"2\">\n  <title>ignored</title>\n");
+        for (int i = 0; i < count; i++) {
+            xml.append("  <item id=\"").append(i).append("\"><zip>0213").append(i % 10).append("</zip>")
+                    .append("<name>récord &amp; &lt;").append(i).append("&gt;</name>")
+                    .append("<tag>a</tag><x:note>").append(i % 2 == 0 ? "true" : "1.50").append("</x:note>")
+                    .append("<tag>b</tag><empty/><![CDATA[<raw>]]></item>\n");
+            if (i % 9 == 0) {
+                xml.append("  <!-- comment --><other>").append(i).append("</other>\n");
+            }
+        }
+        return xml.append("</feed>\n").toString();
+    }
+
+    @Test
+    void parallelOutputIsIdenticalToSequentialOutput() throws Exception {
+        String xml = records(200);
+        for (ConversionOptions options : new ConversionOptions[] {SPLIT, SPLIT.withPretty(false)}) {
+            String expected = sequential(xml, options);
+            for (int chunkSize : new int[] {1, 100, 4096, 1 << 20}) {
+                assertEquals(expected, parallel(xml, options, chunkSize), "chunk size " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void parallelLinesAreIdenticalToSequentialLines() throws Exception {
+        String xml = records(200);
+        String expected = sequentialLines(xml);
+        for (int chunkSize : new int[] {1, 100, 1 << 20}) {
+            assertEquals(expected, parallelLines(xml, TypeMap.NONE, chunkSize), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void parallelOutputWithDeclaredTypesIsIdenticalToSequentialOutput() throws Exception {
+        String xml = records(50);
+        ConversionOptions options = SPLIT.withTypes(TypeMap.of(
+                Map.of("item/zip", TypeMap.Type.STRING, "*/note", TypeMap.Type.DECIMAL, "other", TypeMap.Type.ARRAY)));
+        assertEquals(sequential(xml, options), parallel(xml, options, 100));
+    }
+
+    @Test
+    void parallelOutputOfDocumentsWithoutRecordsIsIdenticalToSequentialOutput() throws Exception {
+        for (String xml : new String[] {
+                "<feed/>", "<feed></feed>", "<feed a=\"1\">text</feed>", "<feed><one>1</one></feed>"}) {
+            assertEquals(sequential(xml, SPLIT), parallel(xml, SPLIT, 1), xml);
+        }
+    }
+
+    @Test
+    void parallelConversionIgnoresContentAfterTheRootAsSequentialConversionDoes() throws Exception {
+        String valid = records(20);
+        for (String xml : new String[] {valid + "<feed/>", valid + "text", valid + "<item>"}) {
+            assertEquals(sequential(xml, SPLIT), parallel(xml, SPLIT, 100));
+        }
+    }
+
+    @Test
+    void parallelConversionRejectsWhatSequentialConversionRejects() {
+        String valid = records(20);
+        String records = valid.substring(0, valid.lastIndexOf("</feed>"));
+        for (String malformed : new String[] {
+                records + "<item><zip>1</item></feed>",
+                records + "<item>",
+                records,
+                records + "<item>&undefined;</item></feed>",
+                "<feed><item></feed>"}) {
+            assertThrows(IOException.class, () -> sequential(malformed, SPLIT), malformed);
+            for (int chunkSize : new int[] {1, 100, 1 << 20}) {
+                assertThrows(IOException.class, () -> parallel(malformed, SPLIT, chunkSize),
+                        malformed + ", chunk size " + chunkSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package main.java.com.mugtaba.dataconverter.converters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XmlToJsonStreamerTest {
+
+    private static final ConversionOptions COMPACT = ConversionOptions.DEFAULT.withPretty(false);
+
+    private static String convert(String xml) throws JsonProcessingException {
+        return DynamicConverter.xmlToJson(xml, COMPACT);
+    }
+
+    @Test
+    void groupsAdjacentRepeatedElements() throws Exception {
+        assertEquals("{\"a\":[1,2],\"b\":\"x\"}", convert("<r><a>1</a><a>2</a><b>x</b></r>"));
+    }
+
+    @Test
+    void groupsRepeatedElementsThatAreNotAdjacent() throws Exception {
+        assertEquals("{\"a\":[1,2],\"b\":\"x\"}", convert("<r><a>1</a><b>x</b><a>2</a></r>"));
+    }
+
+    @Test
+    void groupsScatteredRunsAndNestedValuesInDocumentOrder() throws Exception {
+        assertEquals("{\"a\":[1,2,3,{\"c\":4}],\"b\":[\"x\",\"y\"]}",
+                convert("<r><a>1</a><b>x</b><a>2</a><a>3</a><b>y</b><a><c>4</c></a></r>"));
+    }
+
+    @Test
+    void groupsRepeatedElementsWithinEachObject() throws Exception {
+        assertEquals("{\"x\":[{\"a\":[1,3],\"b\":2},{\"a\":5}]}",
+                convert("<r><x><a>1</a><b>2</b><a>3</a></x><x><a>5</a></x></r>"));
+    }
+
+    @Test
+    void mergesElementRepeatedAfterItsArrayWasWritten() throws Exception {
+        assertEquals("{\"r\":[1,2,3],\"x\":\"a\"}",
+                convert("<Root><r>1</r><r>2</r><x>a</x><r>3</r></Root>"));
+    }
+
+    @Test
+    void mergesLateRepeatsWithinEachItemOfAnArray() throws Exception {
+        String item = "<item><r>1</r><r>2</r><x>a</x><r>3</r></item>";
+        assertEquals("{\"item\":[{\"r\":[1,2,3],\"x\":\"a\"},{\"r\":[1,2,3],\"x\":\"a\"},"
+                        + "{\"r\":[1,2,3],\"x\":\"a\"}]}",
+                convert("<Root>" + item + item + item + "</Root>"));
+    }
+
+    @Test
+    void mergesLateRepeatsOfSeveralWrittenArrays() throws Exception {
+        assertEquals("{\"a\":[1,2,5,6],\"b\":[3,4,7],\"c\":\"x\"}",
+                convert("<r><a>1</a><a>2</a><b>3</b><b>4</b><a>5</a><c>x</c><b>7</b><a>6</a></r>"));
+    }
+
+    @Test
+    void closesWrittenArrayThatIsNotRepeatedLater() throws Exception {
+        assertEquals("{\"a\":[1,2],\"b\":[\"x\",\"y\"]}",
+                convert("<r><a>1</a><a>2</a><b>x</b><b>y</b></r>"));
+    }
+}